@@ -0,0 +1,112 @@
+package com.spring.qbe.employee;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Search response encoding: the Jackson path against {@link EmployeeBinaryCodec}. Scores are per response;
+ * divide by {@code rows} for ns per row. Both encoders write into the same reset buffer, so neither pays for
+ * an allocation the other skips, and report {@link EncodedSize} counters next to their scores.
+ * Run with {@code ./gradlew jmh -Pjmh.includes=EmployeeEncoding}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class EmployeeEncodingBenchmark {
+
+    @Param({"1", "100", "1000"})
+    public int rows;
+
+    private ObjectWriter listWriter;
+    private ObjectReader listReader;
+    private List<Employee> employees;
+    private byte[] json;
+    private byte[] binary;
+    private ByteArrayOutputStream buffer;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+                                                               .build();
+        listWriter = objectMapper.writerFor(objectMapper.getTypeFactory()
+                                                        .constructCollectionType(List.class, Employee.class));
+        listReader = objectMapper.readerFor(objectMapper.getTypeFactory()
+                                                        .constructCollectionType(List.class, Employee.class));
+
+        employees = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            employees.add(Employee.builder()
+                                  .id(100_000L + i)
+                                  .firstName("First" + i)
+                                  .lastName("Last" + i)
+                                  .department("Engineering")
+                                  .position("Engineer")
+                                  .salary(new BigDecimal("98000.00"))
+                                  .build());
+        }
+        json = listWriter.writeValueAsBytes(employees);
+        buffer = new ByteArrayOutputStream(json.length);
+        EmployeeBinaryCodec.writeAll(employees, buffer);
+        binary = buffer.toByteArray();
+    }
+
+    @Benchmark
+    public int encodeJson(EncodedSize size) throws IOException {
+        buffer.reset();
+        listWriter.writeValue(buffer, employees);
+        return size.add(buffer.size(), rows);
+    }
+
+    @Benchmark
+    public int encodeBinary(EncodedSize size) throws IOException {
+        buffer.reset();
+        EmployeeBinaryCodec.writeAll(employees, buffer);
+        return size.add(buffer.size(), rows);
+    }
+
+    @Benchmark
+    public List<Employee> decodeJson() throws IOException {
+        return listReader.readValue(json);
+    }
+
+    @Benchmark
+    public List<Employee> decodeBinary() {
+        return EmployeeBinaryCodec.readAll(binary);
+    }
+
+    /**
+     * Bytes and rows an encode benchmark wrote in an iteration: {@code encodedBytes / encodedRows} is the size
+     * of a row in its encoding.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class EncodedSize {
+
+        public long encodedBytes;
+        public long encodedRows;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            encodedBytes = 0;
+            encodedRows = 0;
+        }
+
+        int add(int bytes, int rows) {
+            encodedBytes += bytes;
+            encodedRows += rows;
+            return bytes;
+        }
+
+    }
+
+}
@@ -0,0 +1,66 @@
+package com.spring.qbe.employee;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson cost of the {@link EmployeeController} request and response bodies, using an
+ * {@link ObjectMapper} configured the way Spring Boot configures the MVC one.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EmployeeJsonBenchmark {
+
+    @Param({"1", "100"})
+    public int rows;
+
+    private ObjectWriter listWriter;
+    private ObjectReader probeReader;
+    private List<Employee> employees;
+    private String probeJson;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+                                                               .build();
+        listWriter = objectMapper.writerFor(objectMapper.getTypeFactory()
+                                                        .constructCollectionType(List.class, Employee.class));
+        probeReader = objectMapper.readerFor(Employee.class);
+
+        employees = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            employees.add(Employee.builder()
+                                  .id((long) i)
+                                  .firstName("First" + i)
+                                  .lastName("Last" + i)
+                                  .department("Engineering")
+                                  .position("Engineer")
+                                  .salary(new BigDecimal("98000.00"))
+                                  .build());
+        }
+        probeJson = objectMapper.writeValueAsString(Employee.builder()
+                                                            .department("Engineering")
+                                                            .position("Engineer")
+                                                            .build());
+    }
+
+    @Benchmark
+    public byte[] serializeResponse() throws JsonProcessingException {
+        return listWriter.writeValueAsBytes(employees);
+    }
+
+    @Benchmark
+    public Employee deserializeProbe() throws JsonProcessingException {
+        return probeReader.readValue(probeJson);
+    }
+
+}
@@ -0,0 +1,92 @@
+package com.spring.qbe.employee;
+
+import com.spring.qbe.QbeApplication;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end {@link EmployeeService} calls against H2 in MySQL compatibility mode, seeded from
+ * {@code employees.csv}. {@code resultCache} toggles the in-process result cache to separate query cost
+ * from cache cost.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EmployeeServiceBenchmark {
+
+    @Param({"false", "true"})
+    public boolean resultCache;
+
+    private ConfigurableApplicationContext context;
+    private EmployeeService employeeService;
+    private Employee engineers;
+    private Employee janeDoe;
+
+    @Setup
+    public void setUp() {
+        // Arguments rather than default properties, which application.yml would override.
+        context = new SpringApplicationBuilder(QbeApplication.class).run(
+            "--spring.datasource.url=jdbc:h2:mem:qbe;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+            "--spring.datasource.username=sa",
+            "--spring.datasource.password=",
+            "--spring.docker.compose.enabled=false",
+            // The Flyway migrations target MySQL, where the id generator is a table; H2 gets a sequence.
+            "--spring.flyway.enabled=false",
+            "--spring.jpa.hibernate.ddl-auto=create",
+            "--spring.jpa.show-sql=false",
+            "--logging.level.org.hibernate.sql=warn",
+            "--qbe.result-cache.enabled=" + resultCache
+        );
+        employeeService = context.getBean(EmployeeService.class);
+        engineers = Employee.builder()
+                            .department("Engineering")
+                            .position("Engineer")
+                            .build();
+        janeDoe = Employee.builder()
+                          .firstName("Jane")
+                          .lastName("Doe")
+                          .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Employee> findEmployeesByExample() {
+        return employeeService.findEmployeesByExample(engineers);
+    }
+
+    @Benchmark
+    public Window<Employee> findEmployeesByExamplePage() {
+        return employeeService.findEmployeesByExample(engineers, ScrollPosition.keyset(), 2);
+    }
+
+    @Benchmark
+    public Optional<Employee> findOneEmployeeByExample() {
+        return employeeService.findOneEmployeeByExample(janeDoe);
+    }
+
+    @Benchmark
+    public List<Employee> findEmployeesWithCustomMatcher() {
+        return employeeService.findEmployeesWithCustomMatcher("John", "IT");
+    }
+
+    @Benchmark
+    public long countEmployeesByExample() {
+        return employeeService.countEmployeesByExample(engineers);
+    }
+
+    @Benchmark
+    public boolean existsByExample() {
+        return employeeService.existsByExample(engineers);
+    }
+
+}
@@ -0,0 +1,46 @@
+package com.spring.qbe.employee;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.ExampleMatcher;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of building the {@link Example} and {@link ExampleMatcher} that every {@link EmployeeService} call
+ * starts with, and of normalizing it into a {@link NormalizedProbe} for the shape-compiled query path.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ExampleConstructionBenchmark {
+
+    private Employee probe;
+
+    @Setup
+    public void setUp() {
+        probe = Employee.builder()
+                        .firstName("John")
+                        .department("Engineering")
+                        .build();
+    }
+
+    @Benchmark
+    public Example<Employee> defaultMatcherExample() {
+        return Example.of(probe);
+    }
+
+    @Benchmark
+    public Example<Employee> customMatcherExample() {
+        ExampleMatcher matcher = ExampleMatcher.matching()
+                                               .withIgnoreNullValues()
+                                               .withStringMatcher(ExampleMatcher.StringMatcher.EXACT)
+                                               .withMatcher("department", ExampleMatcher.GenericPropertyMatcher::contains);
+        return Example.of(probe, matcher);
+    }
+
+    @Benchmark
+    public NormalizedProbe normalizeDefaultMatcherExample() {
+        return NormalizedProbe.of(Example.of(probe));
+    }
+
+}
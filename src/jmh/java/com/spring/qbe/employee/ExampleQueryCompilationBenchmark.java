@@ -0,0 +1,119 @@
+package com.spring.qbe.employee;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Example;
+import org.springframework.data.jpa.convert.QueryByExamplePredicateBuilder;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the per-request cost of the Spring Data Criteria path for {@code findAll(Example)} with the
+ * shape-compiled JPQL path in {@link EmployeeExampleRepositoryImpl}. The {@code build*} benchmarks isolate
+ * query construction; the {@code execute*} benchmarks add execution against an in-memory H2 database.
+ * Run with {@code ./gradlew jmh}; the gc profiler reports allocation per operation.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ExampleQueryCompilationBenchmark {
+
+    private static final String[] DEPARTMENTS = {"IT", "Engineering", "HR", "Sales"};
+    private static final String[] POSITIONS = {"Developer", "Engineer", "Manager", "Representative"};
+
+    private SessionFactory sessionFactory;
+    private EntityManager entityManager;
+    private ExampleQueryCache queryCache;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        StandardServiceRegistry registry = new StandardServiceRegistryBuilder()
+            .applySetting(AvailableSettings.JAKARTA_JDBC_URL, "jdbc:h2:mem:qbe;MODE=MySQL;DB_CLOSE_DELAY=-1")
+            .applySetting(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+            .build();
+        sessionFactory = new MetadataSources(registry).addAnnotatedClass(Employee.class)
+                                                      .buildMetadata()
+                                                      .buildSessionFactory();
+        entityManager = sessionFactory.createEntityManager();
+        queryCache = new ExampleQueryCache();
+
+        entityManager.getTransaction()
+                     .begin();
+        for (int i = 0; i < 1_000; i++) {
+            entityManager.persist(Employee.builder()
+                                          .firstName("First" + i)
+                                          .lastName("Last" + i)
+                                          .department(DEPARTMENTS[i % DEPARTMENTS.length])
+                                          .position(POSITIONS[i % POSITIONS.length])
+                                          .salary(BigDecimal.valueOf(50_000 + i))
+                                          .build());
+        }
+        entityManager.getTransaction()
+                     .commit();
+        entityManager.clear();
+    }
+
+    @TearDown
+    public void tearDown() {
+        entityManager.close();
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    public TypedQuery<Employee> buildCriteriaQuery() {
+        return criteriaQuery(nextExample());
+    }
+
+    @Benchmark
+    public TypedQuery<Employee> buildCompiledQuery() {
+        return compiledQuery(nextExample());
+    }
+
+    @Benchmark
+    public List<Employee> executeCriteriaQuery() {
+        List<Employee> result = criteriaQuery(nextExample()).getResultList();
+        entityManager.clear();
+        return result;
+    }
+
+    @Benchmark
+    public List<Employee> executeCompiledQuery() {
+        List<Employee> result = compiledQuery(nextExample()).getResultList();
+        entityManager.clear();
+        return result;
+    }
+
+    private Example<Employee> nextExample() {
+        int i = next++ & 3;
+        return Example.of(Employee.builder()
+                                  .department(DEPARTMENTS[i])
+                                  .position(POSITIONS[i])
+                                  .build());
+    }
+
+    private TypedQuery<Employee> criteriaQuery(Example<Employee> example) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Employee> query = builder.createQuery(Employee.class);
+        Root<Employee> root = query.from(Employee.class);
+        query.where(QueryByExamplePredicateBuilder.getPredicate(root, builder, example));
+        return entityManager.createQuery(query);
+    }
+
+    private TypedQuery<Employee> compiledQuery(Example<Employee> example) {
+        NormalizedProbe probe = NormalizedProbe.of(example);
+        CompiledExampleQuery query = queryCache.get(probe.shape());
+        return query.bind(entityManager.createQuery(query.selectJpql(), Employee.class), probe);
+    }
+
+}
@@ -0,0 +1,23 @@
+package com.spring.qbe.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Admission control for {@code /api/**} requests.
+ *
+ * @param enabled        whether requests must acquire a permit before they are handled
+ * @param maxInFlight    number of requests handled concurrently; size it close to the JDBC pool so that
+ *                       the pool, not the request threads, is the real concurrency limit
+ * @param acquireTimeout how long a request may wait for a permit before it is rejected with 503
+ */
+@ConfigurationProperties("qbe.concurrency-limit")
+public record ConcurrencyLimitProperties(
+    @DefaultValue("false") boolean enabled,
+    @DefaultValue("40") int maxInFlight,
+    @DefaultValue("200ms") Duration acquireTimeout
+) {
+
+}
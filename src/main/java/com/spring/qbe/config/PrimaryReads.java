@@ -0,0 +1,41 @@
+package com.spring.qbe.config;
+
+import java.util.function.Supplier;
+
+/**
+ * Sends the read-only transactions of a piece of work to the primary, for answers that must not be older
+ * than something already read from it, e.g. a version the answer is labelled with. Without replicas every
+ * read uses the primary anyway. Like {@link ShardContext} it is bound to the current thread.
+ */
+public final class PrimaryReads {
+
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+    private PrimaryReads() {
+    }
+
+    public static <T> T on(Supplier<T> work) {
+        Boolean previous = PINNED.get();
+        PINNED.set(Boolean.TRUE);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                PINNED.remove();
+            }
+        }
+    }
+
+    public static boolean isPinned() {
+        return PINNED.get() != null;
+    }
+
+    static void bind(boolean pinned) {
+        if (pinned) {
+            PINNED.set(Boolean.TRUE);
+        } else {
+            PINNED.remove();
+        }
+    }
+
+}
@@ -0,0 +1,75 @@
+package com.spring.qbe.config;
+
+import java.util.function.Supplier;
+
+/**
+ * Where the reads of the current thread go: its read-your-writes stickiness and whether it is pinned to
+ * {@link PrimaryReads the primary}. Both are bound to the thread, so work handed to another one, e.g. a
+ * streamed response body written on the MVC async executor or a reactive pipeline on its scheduler, captures
+ * them where it is set up and runs {@link #on} them where it executes. A write made there still extends the
+ * stickiness of the request it came from.
+ */
+public final class ReadRouting {
+
+    private final ReadYourWrites.Session session;
+    private final boolean pinned;
+
+    private ReadRouting(ReadYourWrites.Session session, boolean pinned) {
+        this.session = session;
+        this.pinned = pinned;
+    }
+
+    /**
+     * Whether the reads of the current thread must see the primary: the request is still sticky after a write,
+     * or the work is pinned to it.
+     */
+    public static boolean requiresPrimary() {
+        return ReadYourWrites.isSticky() || PrimaryReads.isPinned();
+    }
+
+    public static ReadRouting capture() {
+        return new ReadRouting(ReadYourWrites.current(), PrimaryReads.isPinned());
+    }
+
+    /**
+     * Runs {@code work} with the captured routing, restoring the thread's own afterwards.
+     */
+    public <T> T on(Supplier<T> work) {
+        ReadRouting previous = bind();
+        try {
+            return work.get();
+        } finally {
+            previous.bind();
+        }
+    }
+
+    /**
+     * Like {@link #on}, for work that throws checked exceptions, e.g. writing to a response stream.
+     */
+    public <E extends Exception> void run(Task<E> task) throws E {
+        ReadRouting previous = bind();
+        try {
+            task.run();
+        } finally {
+            previous.bind();
+        }
+    }
+
+    /**
+     * Binds this routing to the current thread and returns the one it replaced.
+     */
+    private ReadRouting bind() {
+        ReadRouting previous = capture();
+        ReadYourWrites.bind(session);
+        PrimaryReads.bind(pinned);
+        return previous;
+    }
+
+    @FunctionalInterface
+    public interface Task<E extends Exception> {
+
+        void run() throws E;
+
+    }
+
+}
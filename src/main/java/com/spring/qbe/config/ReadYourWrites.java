@@ -0,0 +1,63 @@
+package com.spring.qbe.config;
+
+import java.util.function.LongConsumer;
+
+/**
+ * Per-request read-your-writes state: until {@code primaryUntil} (epoch millis) every read of the current
+ * request goes to the primary. {@link ReadYourWritesFilter} restores it from the client and persists it
+ * after a write; outside a request nothing is tracked. Work the request hands to another thread takes the
+ * state along through {@link ReadRouting}.
+ */
+final class ReadYourWrites {
+
+    private static final ThreadLocal<Session> CURRENT = new ThreadLocal<>();
+
+    private ReadYourWrites() {
+    }
+
+    static void begin(long primaryUntil, LongConsumer onWrite) {
+        CURRENT.set(new Session(primaryUntil, onWrite));
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    static boolean isSticky() {
+        Session session = CURRENT.get();
+        return session != null && session.primaryUntil > System.currentTimeMillis();
+    }
+
+    static Session current() {
+        return CURRENT.get();
+    }
+
+    static void bind(Session session) {
+        if (session == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(session);
+        }
+    }
+
+    static void markWrite(long windowMillis) {
+        Session session = CURRENT.get();
+        if (session != null) {
+            session.primaryUntil = System.currentTimeMillis() + windowMillis;
+            session.onWrite.accept(session.primaryUntil);
+        }
+    }
+
+    static final class Session {
+
+        private final LongConsumer onWrite;
+        private volatile long primaryUntil;
+
+        private Session(long primaryUntil, LongConsumer onWrite) {
+            this.primaryUntil = primaryUntil;
+            this.onWrite = onWrite;
+        }
+
+    }
+
+}
@@ -0,0 +1,78 @@
+package com.spring.qbe.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Samples {@code Seconds_Behind_Source} of every replica in the background. A replica is usable when it
+ * answers and is at most {@code maxLag} behind; one that is unreachable, has replication stopped, or lags
+ * further is skipped until a later sample says otherwise. Instances that are not replicas at all
+ * (no replication status) count as current, which makes two standalone local databases a valid setup.
+ * Replicas start out unusable until their first sample.
+ */
+class ReplicaLagMonitor implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private final List<DataSource> replicas;
+    private final long maxLagSeconds;
+    private final AtomicIntegerArray usable;
+    private final ScheduledExecutorService scheduler;
+
+    ReplicaLagMonitor(List<DataSource> replicas, Duration maxLag, Duration checkInterval) {
+        this.replicas = List.copyOf(replicas);
+        this.maxLagSeconds = maxLag.toSeconds();
+        this.usable = new AtomicIntegerArray(replicas.size());
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                                                                          .name("replica-lag-monitor")
+                                                                          .daemon()
+                                                                          .factory());
+        this.scheduler.scheduleWithFixedDelay(this::check, 0, checkInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    boolean isUsable(int replica) {
+        return usable.get(replica) == 1;
+    }
+
+    void check() {
+        for (int i = 0; i < replicas.size(); i++) {
+            boolean current = isCurrent(replicas.get(i));
+            if (usable.getAndSet(i, current ? 1 : 0) == 1 != current) {
+                log.info("Replica {} is now {}", i, current ? "in rotation" : "out of rotation");
+            }
+        }
+    }
+
+    private boolean isCurrent(DataSource replica) {
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet status = statement.executeQuery("SHOW REPLICA STATUS")) {
+            if (!status.next()) {
+                return true;
+            }
+            long lagSeconds = status.getLong("Seconds_Behind_Source");
+            return !status.wasNull() && lagSeconds <= maxLagSeconds;
+        } catch (SQLException e) {
+            log.debug("Replication status check failed", e);
+            return false;
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+}
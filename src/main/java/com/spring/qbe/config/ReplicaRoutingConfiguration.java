@@ -0,0 +1,87 @@
+package com.spring.qbe.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.jdbc.JdbcConnectionDetails;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Replaces the auto-configured data source with a primary/replica router. The primary keeps honouring
+ * {@code spring.datasource.*} and service connections (Docker Compose, Testcontainers); replicas come from
+ * {@code qbe.replicas.instances}. Stands down when {@code qbe.shards} is enabled too, whose configuration then
+ * fails startup with the reason.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnExpression("${qbe.replicas.enabled:false} and !${qbe.shards.enabled:false}")
+class ReplicaRoutingConfiguration {
+
+    @Bean(destroyMethod = "close")
+    @ConfigurationProperties("spring.datasource.hikari")
+    HikariDataSource primaryDataSource(DataSourceProperties properties, ObjectProvider<JdbcConnectionDetails> connectionDetails) {
+        JdbcConnectionDetails details = connectionDetails.getIfAvailable();
+        if (details == null) {
+            return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        }
+        return DataSourceBuilder.create()
+                                .type(HikariDataSource.class)
+                                .url(details.getJdbcUrl())
+                                .username(details.getUsername())
+                                .password(details.getPassword())
+                                .driverClassName(details.getDriverClassName())
+                                .build();
+    }
+
+    @Bean(destroyMethod = "close")
+    ReplicaPools replicaPools(ReplicaRoutingProperties properties) {
+        List<HikariDataSource> pools = properties.instances()
+                                                 .stream()
+                                                 .map(instance -> {
+                                                     HikariDataSource pool = DataSourceBuilder.create()
+                                                                                              .type(HikariDataSource.class)
+                                                                                              .url(instance.url())
+                                                                                              .username(instance.username())
+                                                                                              .password(instance.password())
+                                                                                              .build();
+                                                     pool.setReadOnly(true);
+                                                     return pool;
+                                                 })
+                                                 .toList();
+        return new ReplicaPools(pools, new ReplicaLagMonitor(List.copyOf(pools), properties.maxLag(), properties.lagCheckInterval()));
+    }
+
+    @Bean
+    @Primary
+    DataSource dataSource(HikariDataSource primaryDataSource, ReplicaPools replicaPools, ReplicaRoutingProperties properties) {
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primaryDataSource, List.copyOf(replicaPools.pools()), properties,
+            replicaPools.monitor()::isUsable));
+    }
+
+    @Bean
+    FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(ReplicaRoutingProperties properties) {
+        FilterRegistrationBean<ReadYourWritesFilter> registration = new FilterRegistrationBean<>(new ReadYourWritesFilter(properties.readYourWrites()));
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+
+    record ReplicaPools(List<HikariDataSource> pools, ReplicaLagMonitor monitor) implements AutoCloseable {
+
+        @Override
+        public void close() {
+            monitor.close();
+            pools.forEach(HikariDataSource::close);
+        }
+
+    }
+
+}
@@ -0,0 +1,126 @@
+package com.spring.qbe.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntPredicate;
+
+/**
+ * Sends read-only transactions to a replica and everything else to the primary. A read-only transaction
+ * still uses the primary when the client wrote within the read-your-writes window, inside
+ * {@link PrimaryReads#on} or when no replica is usable. Wrap it in a {@code LazyConnectionDataSourceProxy} so the key is resolved once the transaction's
+ * read-only flag is known.
+ */
+class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final int PRIMARY = -1;
+
+    private static final Object WRITE_TRACKED = new Object();
+
+    private final List<DataSource> replicas;
+    private final ReplicaRoutingProperties.Balancing balancing;
+    private final long readYourWritesMillis;
+    private final IntPredicate usable;
+    private final AtomicInteger next = new AtomicInteger();
+
+    ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, ReplicaRoutingProperties properties, IntPredicate usable) {
+        this.replicas = List.copyOf(replicas);
+        this.balancing = properties.balancing();
+        this.readYourWritesMillis = properties.readYourWrites().toMillis();
+        this.usable = usable;
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < this.replicas.size(); i++) {
+            targets.put(i, this.replicas.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            trackWrite();
+            return PRIMARY;
+        }
+        if (ReadRouting.requiresPrimary()) {
+            return PRIMARY;
+        }
+        return switch (balancing) {
+            case ROUND_ROBIN -> roundRobin();
+            case LEAST_LOADED -> leastLoaded();
+        };
+    }
+
+    private int roundRobin() {
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(1, replicas.size()));
+        for (int offset = 0; offset < replicas.size(); offset++) {
+            int candidate = (start + offset) % replicas.size();
+            if (usable.test(candidate)) {
+                return candidate;
+            }
+        }
+        return PRIMARY;
+    }
+
+    private int leastLoaded() {
+        int best = PRIMARY;
+        int bestActive = Integer.MAX_VALUE;
+        for (int i = 0; i < replicas.size(); i++) {
+            if (!usable.test(i)) {
+                continue;
+            }
+            int active = activeConnections(replicas.get(i));
+            if (active < bestActive) {
+                best = i;
+                bestActive = active;
+            }
+        }
+        return best;
+    }
+
+    private static int activeConnections(DataSource replica) {
+        if (replica instanceof HikariDataSource hikari) {
+            HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+            return pool == null ? 0 : pool.getActiveConnections();
+        }
+        return 0;
+    }
+
+    /**
+     * Starts the read-your-writes window once a transaction that may have written commits. Only the first
+     * connection of a transaction registers the callback.
+     */
+    private void trackWrite() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+            || TransactionSynchronizationManager.hasResource(WRITE_TRACKED)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(WRITE_TRACKED, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+            @Override
+            public void afterCommit() {
+                ReadYourWrites.markWrite(readYourWritesMillis);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(WRITE_TRACKED);
+            }
+
+        });
+    }
+
+}
@@ -0,0 +1,40 @@
+package com.spring.qbe.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Routing of read-only transactions to replica databases.
+ *
+ * @param enabled          whether read-only transactions may use {@code instances}; the primary stays the one
+ *                         configured under {@code spring.datasource}
+ * @param instances        replica connection settings
+ * @param balancing        how a replica is picked among the healthy ones
+ * @param maxLag           replicas further behind the primary than this are skipped until they catch up
+ * @param lagCheckInterval how often replication lag is sampled
+ * @param readYourWrites   how long reads of a client stay on the primary after it committed a write,
+ *                         so it never reads a replica that has not applied that write yet
+ */
+@ConfigurationProperties("qbe.replicas")
+public record ReplicaRoutingProperties(
+    @DefaultValue("false") boolean enabled,
+    @DefaultValue List<Instance> instances,
+    @DefaultValue("round-robin") Balancing balancing,
+    @DefaultValue("5s") Duration maxLag,
+    @DefaultValue("1s") Duration lagCheckInterval,
+    @DefaultValue("5s") Duration readYourWrites
+) {
+
+    public record Instance(String url, String username, String password) {
+
+    }
+
+    public enum Balancing {
+        ROUND_ROBIN,
+        LEAST_LOADED
+    }
+
+}
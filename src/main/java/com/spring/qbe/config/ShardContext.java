@@ -0,0 +1,36 @@
+package com.spring.qbe.config;
+
+import java.util.function.Supplier;
+
+/**
+ * The shard the current thread works on. {@link ShardRoutingDataSource} reads it when a connection is
+ * acquired, so it must be bound before the first statement of a transaction; a transaction keeps its shard
+ * once it holds a connection. Threads that bind nothing use shard 0.
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static <T> T on(int shard, Supplier<T> work) {
+        Integer previous = CURRENT.get();
+        CURRENT.set(shard);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    static int current() {
+        Integer shard = CURRENT.get();
+        return shard == null ? 0 : shard;
+    }
+
+}
@@ -0,0 +1,128 @@
+package com.spring.qbe.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.jdbc.JdbcConnectionDetails;
+import org.springframework.boot.autoconfigure.orm.jpa.JpaProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces the auto-configured data source with a router over the shards of {@link ShardingProperties}.
+ * Shard 0 keeps honouring {@code spring.datasource.*} and service connections (Docker Compose,
+ * Testcontainers); the others come from {@code qbe.shards.instances}. Startup fails if Hibernate's query
+ * cache or {@code qbe.replicas} is on as well.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "qbe.shards", name = "enabled", havingValue = "true")
+class ShardingConfiguration {
+
+    /**
+     * Ids of shard {@code n} are allocated upwards from {@code n << ID_RANGE_BITS}.
+     */
+    static final int ID_RANGE_BITS = 48;
+
+    static final String QUERY_CACHE_PROPERTY = "hibernate.cache.use_query_cache";
+
+    /**
+     * Hibernate's query cache keys results by statement and parameters, not by shard, so a result cached from
+     * one shard would answer the same query meant for another. The replica router would replace the same data
+     * source; {@link ReplicaRoutingConfiguration} stands down so the conflict is reported here.
+     */
+    ShardingConfiguration(JpaProperties jpaProperties, ReplicaRoutingProperties replicaProperties) {
+        if (Boolean.parseBoolean(jpaProperties.getProperties()
+                                              .get(QUERY_CACHE_PROPERTY))) {
+            throw new IllegalStateException("qbe.shards cannot be combined with Hibernate's query cache (" + QUERY_CACHE_PROPERTY
+                + ", the l2-cache profile)");
+        }
+        if (replicaProperties.enabled()) {
+            throw new IllegalStateException("qbe.shards cannot be combined with qbe.replicas: both replace the data source; "
+                + "disable one of qbe.shards.enabled and qbe.replicas.enabled");
+        }
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConfigurationProperties("spring.datasource.hikari")
+    HikariDataSource primaryDataSource(DataSourceProperties properties, ObjectProvider<JdbcConnectionDetails> connectionDetails) {
+        JdbcConnectionDetails details = connectionDetails.getIfAvailable();
+        if (details == null) {
+            return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        }
+        return DataSourceBuilder.create()
+                                .type(HikariDataSource.class)
+                                .url(details.getJdbcUrl())
+                                .username(details.getUsername())
+                                .password(details.getPassword())
+                                .driverClassName(details.getDriverClassName())
+                                .build();
+    }
+
+    @Bean(destroyMethod = "close")
+    ShardPools shardPools(HikariDataSource primaryDataSource, ShardingProperties properties) {
+        List<HikariDataSource> pools = new ArrayList<>();
+        pools.add(primaryDataSource);
+        for (ShardingProperties.Instance instance : properties.instances()) {
+            pools.add(DataSourceBuilder.create()
+                                       .type(HikariDataSource.class)
+                                       .url(instance.url())
+                                       .username(instance.username())
+                                       .password(instance.password())
+                                       .build());
+        }
+        return new ShardPools(List.copyOf(pools));
+    }
+
+    @Bean
+    @Primary
+    DataSource dataSource(ShardPools shardPools) {
+        return new LazyConnectionDataSourceProxy(new ShardRoutingDataSource(List.copyOf(shardPools.pools())));
+    }
+
+    /**
+     * Applies the migrations of the auto-configured Flyway to every shard, then moves each shard's id
+     * sequence into its own range. Both steps are idempotent, so restarts and added shards are safe.
+     */
+    @Bean
+    FlywayMigrationStrategy shardMigrationStrategy(ShardPools shardPools) {
+        return flyway -> {
+            for (int shard = 0; shard < shardPools.pools().size(); shard++) {
+                HikariDataSource pool = shardPools.pools().get(shard);
+                Flyway.configure(flyway.getConfiguration().getClassLoader())
+                      .configuration(flyway.getConfiguration())
+                      .dataSource(pool)
+                      .load()
+                      .migrate();
+                long firstId = (long) shard << ID_RANGE_BITS;
+                new JdbcTemplate(pool).update("update employees_seq set next_val = ? where next_val < ?", firstId + 1, firstId + 1);
+            }
+        };
+    }
+
+    /**
+     * The shard pools in shard order; the first one is {@code primaryDataSource}.
+     */
+    record ShardPools(List<HikariDataSource> pools) implements AutoCloseable {
+
+        @Override
+        public void close() {
+            pools.stream()
+                 .skip(1)
+                 .forEach(HikariDataSource::close);
+        }
+
+    }
+
+}
@@ -0,0 +1,38 @@
+package com.spring.qbe.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.List;
+
+/**
+ * Horizontal partitioning of {@code employees} by department. Shard 0 is the database configured under
+ * {@code spring.datasource}; {@code instances} are shards 1 to n. Every shard holds the full schema, migrated
+ * by Flyway at startup, and allocates ids from its own range, so ids stay unique across shards.
+ * <p>
+ * Not combined with {@code qbe.replicas}, which replaces the same data source, nor with Hibernate's query
+ * cache ({@code qbe.l2-cache}), whose entries do not record the shard they were read from.
+ *
+ * @param enabled   whether rows are spread over {@code instances} in addition to the primary database
+ * @param instances connection settings of the additional shards
+ * @param threads   threads running a query on several shards at once
+ */
+@ConfigurationProperties("qbe.shards")
+public record ShardingProperties(
+    @DefaultValue("false") boolean enabled,
+    @DefaultValue List<Instance> instances,
+    @DefaultValue("8") int threads
+) {
+
+    /**
+     * Number of shards rows are spread over, 1 when sharding is disabled.
+     */
+    public int count() {
+        return enabled ? instances.size() + 1 : 1;
+    }
+
+    public record Instance(String url, String username, String password) {
+
+    }
+
+}
@@ -0,0 +1,19 @@
+package com.spring.qbe.employee;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings of the incrementally maintained {@link EmployeeAggregates} summary.
+ *
+ * @param resyncInterval how often the summary is rebuilt from the database, i.e. how long writes made through other
+ *                       nodes may be missing from it; zero turns rebuilding off, which is only safe on a single node
+ */
+@ConfigurationProperties("qbe.aggregates")
+public record AggregatesProperties(
+    @DefaultValue("5m") Duration resyncInterval
+) {
+
+}
@@ -0,0 +1,69 @@
+package com.spring.qbe.employee;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Collects, for the answer computed on the current thread, the {@link EmployeeTableVersion} counters that every
+ * copy it was read from is known to have applied: the bitmap index, a result cache entry or the database the
+ * query ran on. Each copy reports what it knows while it answers; the answer is labeled with the lowest
+ * counter of each region, and a region some copy did not report counts as 0. A label may thus be older than
+ * the answer, never newer.
+ */
+final class AnswerVersions {
+
+    private static final ThreadLocal<Collector> CURRENT = new ThreadLocal<>();
+
+    private AnswerVersions() {
+    }
+
+    /**
+     * Computes {@code answer} and returns it with the counters its copies reported. Nothing reported means
+     * nothing is known, so every counter is 0. Collections nest: the inner one is not reported to the outer.
+     */
+    static <T> Versioned<T> collect(Supplier<T> answer) {
+        Collector previous = CURRENT.get();
+        Collector collector = new Collector();
+        CURRENT.set(collector);
+        try {
+            T value = answer.get();
+            return new Versioned<>(value, collector.versions == null ? Map.of() : Map.copyOf(collector.versions));
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Records that the answer being collected was read from a copy that applied {@code versions}. Does nothing
+     * outside {@link #collect}.
+     */
+    static void report(Map<String, Long> versions) {
+        Collector collector = CURRENT.get();
+        if (collector == null) {
+            return;
+        }
+        if (collector.versions == null) {
+            collector.versions = new HashMap<>(versions);
+            return;
+        }
+        collector.versions.keySet()
+                          .retainAll(versions.keySet());
+        collector.versions.replaceAll((region, counter) -> Math.min(counter, versions.get(region)));
+    }
+
+    record Versioned<T>(T value, Map<String, Long> versions) {
+
+    }
+
+    private static final class Collector {
+
+        private Map<String, Long> versions;
+
+    }
+
+}
@@ -0,0 +1,22 @@
+package com.spring.qbe.employee;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings of the in-memory bitmap index engine.
+ *
+ * @param enabled        whether the {@code employees} table is mirrored in memory at startup and exact-match
+ *                       example probes are answered from it instead of MySQL
+ * @param resyncInterval how often the copy is rebuilt from the database, i.e. how long writes made through other
+ *                       nodes may be missing from it; zero turns rebuilding off, which is only safe on a single node
+ */
+@ConfigurationProperties("qbe.bitmap-index")
+public record BitmapIndexProperties(
+    @DefaultValue("false") boolean enabled,
+    @DefaultValue("5m") Duration resyncInterval
+) {
+
+}
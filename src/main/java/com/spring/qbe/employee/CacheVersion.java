@@ -0,0 +1,40 @@
+package com.spring.qbe.employee;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import org.springframework.data.domain.Persistable;
+
+/**
+ * Write counter of one region, e.g. a cache region or a part of a table, shared by all nodes through the database. Always new to
+ * {@link CacheVersionRepository#save}, so creating a row that exists fails instead of resetting it.
+ */
+@Entity(name = "cache_versions")
+class CacheVersion implements Persistable<String> {
+
+    @Id
+    private String region;
+
+    private long counter;
+
+    protected CacheVersion() {
+    }
+
+    CacheVersion(String region) {
+        this.region = region;
+    }
+
+    @Override
+    public String getId() {
+        return region;
+    }
+
+    long getCounter() {
+        return counter;
+    }
+
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+
+}
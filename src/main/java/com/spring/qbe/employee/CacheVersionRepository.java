@@ -0,0 +1,30 @@
+package com.spring.qbe.employee;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+interface CacheVersionRepository extends JpaRepository<CacheVersion, String> {
+
+    @Modifying
+    @Query("update cache_versions v set v.counter = v.counter + 1 where v.region = :region")
+    int bump(String region);
+
+    /**
+     * Like {@link #bump}, creating the counter at 1 if the region has none yet.
+     */
+    @Modifying
+    @Query(value = "insert into cache_versions (region, counter) values (:region, 1) on duplicate key update counter = counter + 1",
+        nativeQuery = true)
+    int bumpOrCreate(String region);
+
+    @Query("select v.counter from cache_versions v where v.region = :region")
+    Optional<Long> version(String region);
+
+    List<CacheVersion> findByRegionIn(Collection<String> regions);
+
+}
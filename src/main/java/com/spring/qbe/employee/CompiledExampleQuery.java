@@ -0,0 +1,280 @@
+package com.spring.qbe.employee;
+
+import jakarta.persistence.TypedQuery;
+import org.springframework.data.jpa.repository.query.EscapeCharacter;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * JPQL compiled once per {@link ProbeShape}. Executing it for another probe of the same shape only binds
+ * values, and Hibernate's query plan cache resolves the unchanged JPQL strings without re-parsing them.
+ */
+final class CompiledExampleQuery {
+
+    /**
+     * Not a backslash: it would need dialect-specific escaping both in JPQL and in MySQL string literals.
+     */
+    private static final EscapeCharacter ESCAPE = EscapeCharacter.of('!');
+
+    private final ProbeShape shape;
+    private final String predicate;
+    private final int parameterCount;
+    private final String selectJpql;
+    private final String countJpql;
+    private final String existsJpql;
+    private final String keysetSelectJpql;
+    private final String selectSql;
+    private final String firstSql;
+    private final String keysetSelectSql;
+    private final Map<List<EmployeeAttribute>, String> projectionJpqlByAttributes = new ConcurrentHashMap<>();
+    private final Map<Integer, String> batchSelectJpqlByProbeCount = new ConcurrentHashMap<>();
+
+    private CompiledExampleQuery(ProbeShape shape, String predicate, int parameterCount) {
+        this.shape = shape;
+        this.predicate = predicate;
+        this.parameterCount = parameterCount;
+        String whereClause = predicate.isEmpty() ? "" : " where " + predicate;
+        this.selectJpql = "select e from employees e" + whereClause;
+        this.countJpql = "select count(e) from employees e" + whereClause;
+        this.existsJpql = "select e.id from employees e" + whereClause;
+        this.keysetSelectJpql = "select e from employees e where " + keysetPredicate() + " order by e.id";
+        String sqlPredicate = renderPredicate(shape, 1, Syntax.SQL);
+        this.selectSql = "select e.* from employees e" + (sqlPredicate.isEmpty() ? "" : " where " + sqlPredicate);
+        this.firstSql = selectSql + " limit ?";
+        this.keysetSelectSql = "select e.* from employees e where " + (sqlPredicate.isEmpty() ? "" : "(" + sqlPredicate + ") and ")
+            + "e.id > ? order by e.id limit ?";
+    }
+
+    static CompiledExampleQuery compile(ProbeShape shape) {
+        int parameterCount = (int) shape.conditions()
+                                        .stream()
+                                        .filter(ProbeShape.Condition::hasValue)
+                                        .count() + shape.bounds()
+                                                        .size();
+        return new CompiledExampleQuery(shape, renderPredicate(shape, 1, Syntax.JPQL), parameterCount);
+    }
+
+    private static String renderPredicate(ProbeShape shape, int firstPosition, Syntax syntax) {
+        if (shape.isUnconstrained()) {
+            return "";
+        }
+
+        StringJoiner example = new StringJoiner(shape.allMatching() ? " and " : " or ");
+        int position = firstPosition;
+        for (ProbeShape.Condition condition : shape.conditions()) {
+            String path = syntax.path(condition.attribute(), condition.ignoreCase());
+            example.add(switch (condition.comparison()) {
+                case IS_NULL -> path + " is null";
+                case EQUALS -> path + " = " + syntax.parameter(position++);
+                case STARTS_WITH, ENDS_WITH, CONTAINS -> path + " like " + syntax.parameter(position++) + " escape '" + ESCAPE.getEscapeCharacter() + "'";
+            });
+        }
+        if (shape.bounds()
+                 .isEmpty()) {
+            return example.toString();
+        }
+
+        StringJoiner predicate = new StringJoiner(" and ");
+        if (!shape.conditions()
+                  .isEmpty()) {
+            predicate.add("(" + example + ")");
+        }
+        for (ProbeShape.Bound bound : shape.bounds()) {
+            predicate.add(syntax.path(bound.attribute(), false) + (bound.lower() ? " >= " : " <= ") + syntax.parameter(position++));
+        }
+        return predicate.toString();
+    }
+
+    String selectJpql() {
+        return selectJpql;
+    }
+
+    String countJpql() {
+        return countJpql;
+    }
+
+    String existsJpql() {
+        return existsJpql;
+    }
+
+    /**
+     * The native SQL of {@link #selectJpql()} with {@code ?} placeholders, bound by {@link #parameters}; what
+     * the database is asked to {@code EXPLAIN} for statements reading every match.
+     */
+    String selectSql() {
+        return selectSql;
+    }
+
+    /**
+     * {@link #selectSql()} stopping after a number of rows, bound last: the SQL of {@link #selectJpql()} or
+     * {@link #existsJpql()} with a maximum result count.
+     */
+    String firstSql() {
+        return firstSql;
+    }
+
+    /**
+     * The native SQL of a {@link #keysetSelectJpql()} page: {@link #parameters} are followed by the exclusive
+     * lower bound on {@code id} and the page size.
+     */
+    String keysetSelectSql() {
+        return keysetSelectSql;
+    }
+
+    /**
+     * A keyset page of entities ordered by id; the last positional parameter is the exclusive lower bound
+     * on {@code id}, see {@link #bindAfterId}.
+     */
+    String keysetSelectJpql() {
+        return keysetSelectJpql;
+    }
+
+    /**
+     * A keyset page of scalar tuples aliased by property name, ordered by id. The last positional
+     * parameter is the exclusive lower bound on {@code id}, see {@link #bindAfterId}.
+     */
+    String projectionJpql(List<EmployeeAttribute> attributes) {
+        return projectionJpqlByAttributes.computeIfAbsent(List.copyOf(attributes), this::buildProjectionJpql);
+    }
+
+    /**
+     * Selects the union of the matches of {@code probeCount} probes of this shape in one statement,
+     * ordered by id. Each row is the entity followed by one flag per probe, {@code 1} when the database
+     * matched the row to that probe, so rows are split among probes by the collation's equality rather than
+     * an in-memory approximation of it. Callers should keep {@code probeCount} to a few distinct values
+     * (e.g. powers of two) so the number of distinct statements per shape stays small.
+     */
+    String batchSelectJpql(int probeCount) {
+        return batchSelectJpqlByProbeCount.computeIfAbsent(probeCount, this::buildBatchSelectJpql);
+    }
+
+    <T> TypedQuery<T> bindAfterId(TypedQuery<T> query, long afterId) {
+        return query.setParameter(parameterCount + 1, afterId);
+    }
+
+    <T> TypedQuery<T> bind(TypedQuery<T> query, NormalizedProbe probe) {
+        bind(query, probe, 1);
+        return query;
+    }
+
+    /**
+     * Binds the probes of a {@link #batchSelectJpql} statement in order.
+     */
+    <T> TypedQuery<T> bind(TypedQuery<T> query, List<NormalizedProbe> probes) {
+        int position = 1;
+        for (NormalizedProbe probe : probes) {
+            position = bind(query, probe, position);
+        }
+        return query;
+    }
+
+    /**
+     * The values of {@code probe} in placeholder order, with like patterns already escaped and wrapped.
+     */
+    Object[] parameters(NormalizedProbe probe) {
+        if (!shape.equals(probe.shape())) {
+            throw new IllegalArgumentException("Probe shape " + probe.shape() + " does not match compiled shape " + shape);
+        }
+
+        Object[] parameters = new Object[parameterCount];
+        List<ProbeShape.Condition> conditions = shape.conditions();
+        int index = 0;
+        for (int i = 0; i < conditions.size(); i++) {
+            ProbeShape.Condition condition = conditions.get(i);
+            if (condition.hasValue()) {
+                parameters[index++] = parameterValue(condition, probe.values()
+                                                                     .get(i));
+            }
+        }
+        for (int i = 0; i < shape.bounds()
+                                 .size(); i++) {
+            parameters[index++] = probe.values()
+                                       .get(conditions.size() + i);
+        }
+        return parameters;
+    }
+
+    private int bind(TypedQuery<?> query, NormalizedProbe probe, int firstPosition) {
+        int position = firstPosition;
+        for (Object parameter : parameters(probe)) {
+            query.setParameter(position++, parameter);
+        }
+        return position;
+    }
+
+    private String buildProjectionJpql(List<EmployeeAttribute> attributes) {
+        StringJoiner select = new StringJoiner(", ", "select ", " from employees e");
+        for (EmployeeAttribute attribute : attributes) {
+            select.add("e." + attribute.property() + " as " + attribute.property());
+        }
+        return select + " where " + keysetPredicate() + " order by e.id";
+    }
+
+    private String keysetPredicate() {
+        String keyset = "e.id > ?" + (parameterCount + 1);
+        return predicate.isEmpty() ? keyset : "(" + predicate + ") and " + keyset;
+    }
+
+    private String buildBatchSelectJpql(int probeCount) {
+        if (shape.isUnconstrained()) {
+            return "select e, " + String.join(", ", Collections.nCopies(probeCount, "1")) + " from employees e order by e.id";
+        }
+
+        StringJoiner select = new StringJoiner(", ", "select e, ", " from employees e");
+        StringJoiner predicates = new StringJoiner(" or ", " where ", " order by e.id");
+        for (int i = 0; i < probeCount; i++) {
+            String probePredicate = "(" + renderPredicate(shape, 1 + i * parameterCount, Syntax.JPQL) + ")";
+            select.add("case when " + probePredicate + " then 1 else 0 end");
+            predicates.add(probePredicate);
+        }
+        return select + predicates.toString();
+    }
+
+    private static Object parameterValue(ProbeShape.Condition condition, Object value) {
+        return switch (condition.comparison()) {
+            case STARTS_WITH -> ESCAPE.escape(value.toString()) + "%";
+            case ENDS_WITH -> "%" + ESCAPE.escape(value.toString());
+            case CONTAINS -> "%" + ESCAPE.escape(value.toString()) + "%";
+            default -> value;
+        };
+    }
+
+    /**
+     * How attribute paths and positional parameters are written: JPQL for execution, SQL for {@code EXPLAIN}.
+     */
+    private enum Syntax {
+
+        JPQL {
+            @Override
+            String path(EmployeeAttribute attribute, boolean folded) {
+                return "e." + (folded ? attribute.foldedProperty() : attribute.property());
+            }
+
+            @Override
+            String parameter(int position) {
+                return "?" + position;
+            }
+        },
+        SQL {
+            @Override
+            String path(EmployeeAttribute attribute, boolean folded) {
+                return "e." + (folded ? attribute.foldedColumn() : attribute.column());
+            }
+
+            @Override
+            String parameter(int position) {
+                return "?";
+            }
+        };
+
+        abstract String path(EmployeeAttribute attribute, boolean folded);
+
+        abstract String parameter(int position);
+
+    }
+
+}
@@ -1,17 +1,48 @@
 package com.spring.qbe.employee;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.math.BigDecimal;
 
 @Entity(name = "employees")
+@Table(indexes = {
+    @Index(name = "idx_employees_department_position_salary", columnList = "department, position, salary"),
+    @Index(name = "idx_employees_first_name_folded", columnList = "first_name_folded"),
+    @Index(name = "idx_employees_last_name_folded", columnList = "last_name_folded"),
+    @Index(name = "idx_employees_department_folded", columnList = "department_folded"),
+    @Index(name = "idx_employees_position_folded", columnList = "position_folded")
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Employee.CACHE_REGION)
 public class Employee {
 
+    /**
+     * Second-level cache regions, used only when Hibernate's second-level and query caches are switched on
+     * (the {@code l2-cache} profile).
+     */
+    static final String CACHE_REGION = "employees";
+    static final String QUERY_CACHE_REGION = "employee-queries";
+
+    /**
+     * Ids are handed out in blocks by Hibernate's pooled optimizer (a sequence, or the {@code employees_seq}
+     * table on MySQL), so inserts can be batched and {@link EmployeeImporter} draws from the same blocks.
+     */
+    static final int ID_ALLOCATION_SIZE = 500;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "employees_seq")
+    @SequenceGenerator(name = "employees_seq", sequenceName = "employees_seq", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     private String firstName;
@@ -24,6 +55,19 @@ public class Employee {
 
     private BigDecimal salary;
 
+    /*
+     * Case-folded, accent-stripped copies of the string attributes, maintained on every insert and update.
+     * Case-insensitive example conditions compare these indexed columns instead of lower(column).
+     * Not exposed: they are a storage detail of the table, not part of the employee.
+     */
+    private String firstNameFolded;
+
+    private String lastNameFolded;
+
+    private String departmentFolded;
+
+    private String positionFolded;
+
     public static Builder builder() {
         return new Builder();
     }
@@ -76,6 +120,19 @@ public class Employee {
         this.salary = salary;
     }
 
+    @PrePersist
+    @PreUpdate
+    void foldNames() {
+        firstNameFolded = fold(firstName);
+        lastNameFolded = fold(lastName);
+        departmentFolded = fold(department);
+        positionFolded = fold(position);
+    }
+
+    static String fold(String value) {
+        return value == null ? null : NormalizedProbe.fold(value);
+    }
+
     @Override
     public String toString() {
         return "Employee{" +
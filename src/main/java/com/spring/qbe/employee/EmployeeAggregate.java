@@ -0,0 +1,12 @@
+package com.spring.qbe.employee;
+
+import java.math.BigDecimal;
+
+/**
+ * Headcount and salary statistics of one {@code (department, position)} group. Salary statistics only
+ * cover employees with a salary and are {@code null} when there are none.
+ */
+public record EmployeeAggregate(String department, String position, long headcount, BigDecimal salarySum,
+                                BigDecimal salaryMin, BigDecimal salaryMax, BigDecimal salaryAvg) {
+
+}
@@ -0,0 +1,276 @@
+package com.spring.qbe.employee;
+
+import com.spring.qbe.config.PrimaryReads;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Example;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Materialized headcount and salary summary per {@code (department, position)}. Built from the rows of the
+ * table, then maintained incrementally from {@link EmployeeChangedEvent}s: an insert adds the row to its group,
+ * a delete subtracts it, an update does both. Each group keeps its salaries as a sorted multiset, so min and
+ * max stay exact when the extreme row is deleted. Reads cost O(groups), not O(rows).
+ * <p>
+ * Groups are keyed by the collation-folded department and position, like MySQL's {@code group by}.
+ * A {@link EmployeeTableChangedEvent} (e.g. a bulk import) has no per-row delta and rebuilds the summary.
+ * Only this node's Hibernate writes produce events, so the summary is also rebuilt every
+ * {@link AggregatesProperties#resyncInterval()}, which bounds how long writes made through other nodes stay
+ * invisible to it.
+ */
+@Component
+class EmployeeAggregates implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(EmployeeAggregates.class);
+
+    private static final int AVERAGE_SCALE = 2;
+
+    private final EmployeeRepository employeeRepository;
+    private final EmployeeShards shards;
+    private final TransactionTemplate readOnlyTransaction;
+    private final long resyncIntervalMillis;
+    private final ScheduledExecutorService scheduler;
+
+    private final Object lock = new Object();
+    private final Object loading = new Object();
+
+    private Map<GroupKey, Group> groups;
+    private List<EmployeeChangedEvent> pending;
+
+    EmployeeAggregates(EmployeeRepository employeeRepository, EmployeeShards shards, AggregatesProperties properties,
+                       PlatformTransactionManager transactionManager) {
+        this.employeeRepository = employeeRepository;
+        this.shards = shards;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.readOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.resyncIntervalMillis = properties.resyncInterval()
+                                              .toMillis();
+        this.scheduler = resyncIntervalMillis > 0 ? Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                                                                                                     .name("employee-aggregates-resync")
+                                                                                                     .daemon()
+                                                                                                     .factory()) : null;
+    }
+
+    /**
+     * All groups, or those of one department when {@code department} is not {@code null}, ordered by
+     * department and position.
+     */
+    List<EmployeeAggregate> aggregates(String department) {
+        String foldedDepartment = department == null ? null : NormalizedProbe.fold(department);
+        if (groups() == null) {
+            load();
+        }
+
+        List<EmployeeAggregate> aggregates = new ArrayList<>();
+        synchronized (lock) {
+            for (Map.Entry<GroupKey, Group> group : groups.entrySet()) {
+                if (foldedDepartment == null || foldedDepartment.equals(group.getKey()
+                                                                             .department())) {
+                    aggregates.add(group.getValue()
+                                        .toAggregate());
+                }
+            }
+        }
+        aggregates.sort(Comparator.comparing(EmployeeAggregate::department, Comparator.nullsFirst(Comparator.naturalOrder()))
+                                  .thenComparing(EmployeeAggregate::position, Comparator.nullsFirst(Comparator.naturalOrder())));
+        return aggregates;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void loadOnStartup() {
+        if (groups() == null) {
+            load();
+        }
+        if (scheduler != null) {
+            scheduler.scheduleWithFixedDelay(this::resync, resyncIntervalMillis, resyncIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    void resync() {
+        try {
+            load();
+        } catch (RuntimeException e) {
+            log.warn("Resyncing employee aggregates failed", e);
+        }
+    }
+
+    /**
+     * Rebuilds the summary from the rows on the primary, which no write the summary has seen is missing from,
+     * without holding the lock. Writes committed while the rows are read may or may not be part of them, so their
+     * events are buffered from before the query runs and replayed: each replaces the row the load saw under its
+     * id, which gives the same result whether or not the row already reflected it. Loads run one at a time.
+     */
+    void load() {
+        synchronized (loading) {
+            synchronized (lock) {
+                pending = new ArrayList<>();
+            }
+
+            Map<Long, SalaryRow> rows = new HashMap<>();
+            try {
+                Example<Employee> everyone = Example.of(new Employee());
+                PrimaryReads.on(() -> readOnlyTransaction.execute(status -> {
+                    try (Stream<Object[]> salaryRows = shards.stream(everyone, employeeRepository::streamSalaryRows)) {
+                        salaryRows.forEach(row -> rows.put((Long) row[0], new SalaryRow((String) row[1], (String) row[2], (BigDecimal) row[3])));
+                    }
+                    return null;
+                }));
+            } catch (RuntimeException | Error e) {
+                synchronized (lock) {
+                    pending = null;
+                }
+                throw e;
+            }
+
+            Map<GroupKey, Group> loaded = new HashMap<>();
+            rows.values()
+                .forEach(row -> add(loaded, row, 1));
+            synchronized (lock) {
+                for (EmployeeChangedEvent event : pending) {
+                    SalaryRow seen = event.before() == null ? null : rows.remove(event.before()
+                                                                                      .getId());
+                    if (seen != null) {
+                        add(loaded, seen, -1);
+                    }
+                    if (event.after() != null) {
+                        SalaryRow row = SalaryRow.of(event.after());
+                        SalaryRow replaced = rows.put(event.after()
+                                                           .getId(), row);
+                        if (replaced != null) {
+                            add(loaded, replaced, -1);
+                        }
+                        add(loaded, row, 1);
+                    }
+                }
+                pending = null;
+                groups = loaded;
+            }
+            log.info("Employee aggregates loaded {} groups", loaded.size());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    void onEmployeeChanged(EmployeeChangedEvent event) {
+        synchronized (lock) {
+            if (pending != null) {
+                pending.add(event);
+            }
+            if (groups == null) {
+                return;
+            }
+
+            if (event.before() != null) {
+                add(groups, SalaryRow.of(event.before()), -1);
+            }
+            if (event.after() != null) {
+                add(groups, SalaryRow.of(event.after()), 1);
+            }
+        }
+    }
+
+    /**
+     * A load in progress may miss the bulk write; this one queues behind it and catches up.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    void onEmployeeTableChanged(EmployeeTableChangedEvent event) {
+        if (groups() != null) {
+            load();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private Map<GroupKey, Group> groups() {
+        synchronized (lock) {
+            return groups;
+        }
+    }
+
+    private static void add(Map<GroupKey, Group> groups, SalaryRow row, long delta) {
+        GroupKey key = GroupKey.of(row.department(), row.position());
+        Group group = groups.computeIfAbsent(key, ignored -> new Group(row.department(), row.position()));
+        group.add(row.salary(), delta);
+        if (group.headcount == 0) {
+            groups.remove(key);
+        }
+    }
+
+    private record SalaryRow(String department, String position, BigDecimal salary) {
+
+        static SalaryRow of(Employee employee) {
+            return new SalaryRow(employee.getDepartment(), employee.getPosition(), employee.getSalary());
+        }
+
+    }
+
+    private record GroupKey(String department, String position) {
+
+        static GroupKey of(String department, String position) {
+            return new GroupKey(department == null ? null : NormalizedProbe.fold(department),
+                position == null ? null : NormalizedProbe.fold(position));
+        }
+
+    }
+
+    private static final class Group {
+
+        private final String department;
+        private final String position;
+        private final TreeMap<BigDecimal, Long> salaryCounts = new TreeMap<>();
+        private long headcount;
+        private long salaried;
+        private BigDecimal salarySum = BigDecimal.ZERO;
+
+        private Group(String department, String position) {
+            this.department = department;
+            this.position = position;
+        }
+
+        void add(BigDecimal salary, long delta) {
+            headcount += delta;
+            if (salary == null) {
+                return;
+            }
+
+            salaried += delta;
+            salarySum = salarySum.add(salary.multiply(BigDecimal.valueOf(delta)));
+            // TreeMap compares with compareTo, so 100.0 and 100.00 share one entry.
+            salaryCounts.merge(salary, delta, (count, change) -> count + change == 0 ? null : count + change);
+        }
+
+        EmployeeAggregate toAggregate() {
+            if (salaried == 0) {
+                return new EmployeeAggregate(department, position, headcount, null, null, null, null);
+            }
+            return new EmployeeAggregate(department, position, headcount, salarySum, salaryCounts.firstKey(), salaryCounts.lastKey(),
+                salarySum.divide(BigDecimal.valueOf(salaried), AVERAGE_SCALE, RoundingMode.HALF_UP));
+        }
+
+    }
+
+}
@@ -0,0 +1,95 @@
+package com.spring.qbe.employee;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * The persistent, singular attributes of {@link Employee} in declaration order.
+ */
+enum EmployeeAttribute {
+
+    ID("id", Long.class, Employee::getId),
+    FIRST_NAME("firstName", String.class, Employee::getFirstName),
+    LAST_NAME("lastName", String.class, Employee::getLastName),
+    DEPARTMENT("department", String.class, Employee::getDepartment),
+    POSITION("position", String.class, Employee::getPosition),
+    SALARY("salary", BigDecimal.class, Employee::getSalary);
+
+    private final String property;
+    private final Class<?> type;
+    private final String column;
+    private final Function<Employee, Object> getter;
+
+    EmployeeAttribute(String property, Class<?> type, Function<Employee, Object> getter) {
+        this.property = property;
+        this.column = property.replaceAll("([A-Z])", "_$1")
+                              .toLowerCase(Locale.ROOT);
+        this.type = type;
+        this.getter = getter;
+    }
+
+    static Optional<EmployeeAttribute> forProperty(String property) {
+        for (EmployeeAttribute attribute : values()) {
+            if (attribute.property.equals(property)) {
+                return Optional.of(attribute);
+            }
+        }
+        return Optional.empty();
+    }
+
+    String property() {
+        return property;
+    }
+
+    /**
+     * The column name under Spring Boot's default snake-case physical naming strategy.
+     */
+    String column() {
+        return column;
+    }
+
+    /**
+     * The shadow property holding the {@link NormalizedProbe#fold folded} value of a string attribute, which
+     * case-insensitive conditions compare so they can use its index.
+     */
+    String foldedProperty() {
+        return property + "Folded";
+    }
+
+    /**
+     * The column of {@link #foldedProperty()}.
+     */
+    String foldedColumn() {
+        return column + "_folded";
+    }
+
+    Class<?> type() {
+        return type;
+    }
+
+    boolean isString() {
+        return type == String.class;
+    }
+
+    /**
+     * Converts the text form of a value to this attribute's type.
+     *
+     * @throws NumberFormatException if {@code value} is not a valid number for a numeric attribute
+     */
+    Object parse(String value) {
+        if (type == Long.class) {
+            return Long.valueOf(value);
+        }
+        if (type == BigDecimal.class) {
+            return new BigDecimal(value);
+        }
+        return value;
+    }
+
+    Object valueOf(Employee employee) {
+        return getter.apply(employee);
+    }
+
+}
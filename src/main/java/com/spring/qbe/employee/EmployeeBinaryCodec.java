@@ -0,0 +1,315 @@
+package com.spring.qbe.employee;
+
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Compact binary form of {@link Employee} with a fixed schema, written and read field by field without
+ * reflection. A list is a varint row count followed by the rows; a single employee is one row.
+ * <p>
+ * A row starts with a presence byte, one bit per field, followed by the fields that are present, in order:
+ * <ol>
+ *     <li>{@code id}: zigzag varint</li>
+ *     <li>{@code firstName}, {@code lastName}, {@code department}, {@code position}: varint byte length, UTF-8 bytes</li>
+ *     <li>{@code salary}: zigzag varint scale, then the unscaled value as a zigzag varint, or, when it does not fit
+ *     in a {@code long}, as a varint byte length and big-endian two's complement bytes</li>
+ * </ol>
+ * Varints are little-endian base 128, as in Protocol Buffers.
+ */
+public final class EmployeeBinaryCodec {
+
+    public static final String MEDIA_TYPE_VALUE = "application/x-qbe-employee";
+    public static final MediaType MEDIA_TYPE = MediaType.valueOf(MEDIA_TYPE_VALUE);
+
+    private static final int ID = 1;
+    private static final int FIRST_NAME = 1 << 1;
+    private static final int LAST_NAME = 1 << 2;
+    private static final int DEPARTMENT = 1 << 3;
+    private static final int POSITION = 1 << 4;
+    private static final int SALARY = 1 << 5;
+    private static final int BIG_SALARY = 1 << 6;
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private EmployeeBinaryCodec() {
+    }
+
+    public static void write(Employee employee, OutputStream outputStream) throws IOException {
+        Encoder encoder = new Encoder(outputStream);
+        encoder.writeEmployee(employee);
+        encoder.flush();
+    }
+
+    public static void writeAll(Collection<Employee> employees, OutputStream outputStream) throws IOException {
+        Encoder encoder = new Encoder(outputStream);
+        encoder.writeVarLong(employees.size());
+        for (Employee employee : employees) {
+            encoder.writeEmployee(employee);
+        }
+        encoder.flush();
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code bytes} is not exactly one encoded employee
+     */
+    public static Employee read(byte[] bytes) {
+        Decoder decoder = new Decoder(bytes);
+        Employee employee = decoder.readEmployee();
+        decoder.expectEnd();
+        return employee;
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code bytes} is not exactly one encoded list of employees
+     */
+    public static List<Employee> readAll(byte[] bytes) {
+        Decoder decoder = new Decoder(bytes);
+        long count = decoder.readVarLong();
+        if (count < 0 || count > bytes.length) {
+            throw new IllegalArgumentException("Invalid employee count: " + count);
+        }
+        List<Employee> employees = new ArrayList<>((int) count);
+        for (long i = 0; i < count; i++) {
+            employees.add(decoder.readEmployee());
+        }
+        decoder.expectEnd();
+        return employees;
+    }
+
+    private static final class Encoder {
+
+        private final OutputStream outputStream;
+        private byte[] buffer = new byte[BUFFER_SIZE];
+        private int position;
+
+        private Encoder(OutputStream outputStream) {
+            this.outputStream = outputStream;
+        }
+
+        private void writeEmployee(Employee employee) throws IOException {
+            BigDecimal salary = employee.getSalary();
+            BigInteger unscaled = salary == null ? null : salary.unscaledValue();
+            boolean bigSalary = unscaled != null && unscaled.bitLength() > 63;
+
+            int presence = (employee.getId() != null ? ID : 0)
+                | (employee.getFirstName() != null ? FIRST_NAME : 0)
+                | (employee.getLastName() != null ? LAST_NAME : 0)
+                | (employee.getDepartment() != null ? DEPARTMENT : 0)
+                | (employee.getPosition() != null ? POSITION : 0)
+                | (unscaled == null ? 0 : bigSalary ? BIG_SALARY : SALARY);
+            ensure(1);
+            buffer[position++] = (byte) presence;
+
+            if (employee.getId() != null) {
+                writeVarLong(zigzag(employee.getId()));
+            }
+            writeString(employee.getFirstName());
+            writeString(employee.getLastName());
+            writeString(employee.getDepartment());
+            writeString(employee.getPosition());
+            if (unscaled != null) {
+                writeVarLong(zigzag(salary.scale()));
+                if (bigSalary) {
+                    byte[] magnitude = unscaled.toByteArray();
+                    writeVarLong(magnitude.length);
+                    ensure(magnitude.length);
+                    System.arraycopy(magnitude, 0, buffer, position, magnitude.length);
+                    position += magnitude.length;
+                } else {
+                    writeVarLong(zigzag(unscaled.longValue()));
+                }
+            }
+        }
+
+        /**
+         * Encodes UTF-8 straight into the buffer, measuring the length first so no intermediate array is needed.
+         * Unpaired surrogates become {@code ?}, as with {@link String#getBytes}.
+         */
+        private void writeString(String value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            int length = value.length();
+            int utf8Length = 0;
+            for (int i = 0; i < length; i++) {
+                char c = value.charAt(i);
+                if (c < 0x80) {
+                    utf8Length++;
+                } else if (c < 0x800) {
+                    utf8Length += 2;
+                } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    utf8Length += 4;
+                    i++;
+                } else if (Character.isSurrogate(c)) {
+                    utf8Length++;
+                } else {
+                    utf8Length += 3;
+                }
+            }
+
+            writeVarLong(utf8Length);
+            ensure(utf8Length);
+            for (int i = 0; i < length; i++) {
+                char c = value.charAt(i);
+                if (c < 0x80) {
+                    buffer[position++] = (byte) c;
+                } else if (c < 0x800) {
+                    buffer[position++] = (byte) (0xC0 | c >> 6);
+                    buffer[position++] = (byte) (0x80 | c & 0x3F);
+                } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    buffer[position++] = (byte) (0xF0 | codePoint >> 18);
+                    buffer[position++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+                    buffer[position++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+                    buffer[position++] = (byte) (0x80 | codePoint & 0x3F);
+                } else if (Character.isSurrogate(c)) {
+                    buffer[position++] = '?';
+                } else {
+                    buffer[position++] = (byte) (0xE0 | c >> 12);
+                    buffer[position++] = (byte) (0x80 | c >> 6 & 0x3F);
+                    buffer[position++] = (byte) (0x80 | c & 0x3F);
+                }
+            }
+        }
+
+        private void writeVarLong(long value) throws IOException {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[position++] = (byte) (value & 0x7F | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (position + bytes <= buffer.length) {
+                return;
+            }
+            flush();
+            if (bytes > buffer.length) {
+                buffer = new byte[bytes];
+            }
+        }
+
+        private void flush() throws IOException {
+            outputStream.write(buffer, 0, position);
+            position = 0;
+        }
+
+        private static long zigzag(long value) {
+            return value << 1 ^ value >> 63;
+        }
+
+    }
+
+    private static final class Decoder {
+
+        private final byte[] bytes;
+        private int position;
+
+        private Decoder(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        private Employee readEmployee() {
+            int presence = readByte();
+            if ((presence & ~(ID | FIRST_NAME | LAST_NAME | DEPARTMENT | POSITION | SALARY | BIG_SALARY)) != 0
+                || (presence & SALARY) != 0 && (presence & BIG_SALARY) != 0) {
+                throw new IllegalArgumentException("Invalid field presence at byte " + (position - 1));
+            }
+
+            Employee employee = new Employee();
+            if ((presence & ID) != 0) {
+                employee.setId(unzigzag(readVarLong()));
+            }
+            if ((presence & FIRST_NAME) != 0) {
+                employee.setFirstName(readString());
+            }
+            if ((presence & LAST_NAME) != 0) {
+                employee.setLastName(readString());
+            }
+            if ((presence & DEPARTMENT) != 0) {
+                employee.setDepartment(readString());
+            }
+            if ((presence & POSITION) != 0) {
+                employee.setPosition(readString());
+            }
+            if ((presence & (SALARY | BIG_SALARY)) != 0) {
+                int scale = readScale();
+                if ((presence & SALARY) != 0) {
+                    employee.setSalary(BigDecimal.valueOf(unzigzag(readVarLong()), scale));
+                } else {
+                    int length = readLength();
+                    employee.setSalary(new BigDecimal(new BigInteger(bytes, take(length), length), scale));
+                }
+            }
+            return employee;
+        }
+
+        private int readScale() {
+            long scale = unzigzag(readVarLong());
+            if (scale < Integer.MIN_VALUE || scale > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Invalid salary scale " + scale + " at byte " + position);
+            }
+            return (int) scale;
+        }
+
+        private String readString() {
+            int length = readLength();
+            return new String(bytes, take(length), length, StandardCharsets.UTF_8);
+        }
+
+        private int readLength() {
+            long length = readVarLong();
+            if (length < 0 || length > bytes.length - position) {
+                throw new IllegalArgumentException("Invalid length " + length + " at byte " + position);
+            }
+            return (int) length;
+        }
+
+        private int take(int length) {
+            int start = position;
+            position += length;
+            return start;
+        }
+
+        private int readByte() {
+            if (position >= bytes.length) {
+                throw new IllegalArgumentException("Truncated employee message");
+            }
+            return bytes[position++] & 0xFF;
+        }
+
+        private long readVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint at byte " + position);
+        }
+
+        private void expectEnd() {
+            if (position != bytes.length) {
+                throw new IllegalArgumentException((bytes.length - position) + " trailing bytes after employee message");
+            }
+        }
+
+        private static long unzigzag(long value) {
+            return value >>> 1 ^ -(value & 1);
+        }
+
+    }
+
+}
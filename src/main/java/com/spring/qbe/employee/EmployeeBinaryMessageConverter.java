@@ -0,0 +1,77 @@
+package com.spring.qbe.employee;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.lang.Nullable;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.Collection;
+
+/**
+ * Reads and writes {@link Employee} and collections of employees as {@link EmployeeBinaryCodec#MEDIA_TYPE},
+ * for callers that send {@code Accept: application/x-qbe-employee} instead of parsing JSON. Registered after
+ * the JSON converter by {@link EmployeeWebConfiguration}, so wildcard {@code Accept} headers keep getting JSON.
+ */
+class EmployeeBinaryMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    EmployeeBinaryMessageConverter() {
+        super(EmployeeBinaryCodec.MEDIA_TYPE);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return Employee.class.isAssignableFrom(clazz) || Collection.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Type type, @Nullable Class<?> contextClass, @Nullable MediaType mediaType) {
+        return ResolvableType.forType(type)
+                             .toClass() == Employee.class && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(@Nullable Type type, Class<?> clazz, @Nullable MediaType mediaType) {
+        return isEmployees(type == null ? ResolvableType.forClass(clazz) : ResolvableType.forType(type)) && canWrite(mediaType);
+    }
+
+    @Override
+    public Object read(Type type, @Nullable Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+        return readInternal(Employee.class, inputMessage);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        try {
+            return EmployeeBinaryCodec.read(inputMessage.getBody()
+                                                        .readAllBytes());
+        } catch (IllegalArgumentException e) {
+            throw new HttpMessageNotReadableException("Malformed employee: " + e.getMessage(), e, inputMessage);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void writeInternal(Object object, @Nullable Type type, HttpOutputMessage outputMessage) throws IOException {
+        if (object instanceof Employee employee) {
+            EmployeeBinaryCodec.write(employee, outputMessage.getBody());
+        } else {
+            EmployeeBinaryCodec.writeAll((Collection<Employee>) object, outputMessage.getBody());
+        }
+    }
+
+    private static boolean isEmployees(ResolvableType type) {
+        Class<?> clazz = type.toClass();
+        if (Employee.class.isAssignableFrom(clazz)) {
+            return true;
+        }
+        return Collection.class.isAssignableFrom(clazz) && type.asCollection()
+                                                                .getGeneric()
+                                                                .toClass() == Employee.class;
+    }
+
+}
@@ -0,0 +1,747 @@
+package com.spring.qbe.employee;
+
+import com.spring.qbe.config.PrimaryReads;
+import com.spring.qbe.config.ReadRouting;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.data.domain.Example;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Optional in-memory copy of the {@code employees} table that answers exact-match example probes without
+ * a database round trip. Every string attribute has one compressed bitmap per distinct value, so a probe
+ * is the intersection (or union, for any-matching) of a few bitmaps and count/exists are cardinality checks.
+ * Values are indexed in their collation-folded form, matching MySQL's case- and accent-insensitive equality.
+ * <p>
+ * {@code contains}, {@code startsWith} and {@code endsWith} matchers, which MySQL can only answer with a full
+ * scan for a leading wildcard, go through a trigram index over the distinct folded values of each string
+ * column: the trigrams of the search term narrow the candidate values, each candidate is verified, and the
+ * row bitmaps of the survivors are combined. Terms shorter than a trigram have no selective postings and are
+ * left to the database.
+ * <p>
+ * The copy is loaded when the application is ready and then follows committed writes through
+ * {@link EmployeeChangedEvent}s; until loading completes every probe goes to the database. Only this node's
+ * Hibernate writes produce events, so the copy is also rebuilt every
+ * {@link BitmapIndexProperties#resyncInterval()}, which bounds how long writes made through other nodes
+ * stay invisible to it. Rebuilds happen next to the copy in use, which keeps answering probes meanwhile.
+ * <p>
+ * The copy knows which {@link EmployeeTableVersion} counters it has applied: those read before the rows of its
+ * last rebuild, advanced by the bumps of this node's writes as long as no other node's write came in between.
+ * Its answers are labeled with them ({@link AnswerVersions}).
+ */
+@Component
+class EmployeeBitmapIndex implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(EmployeeBitmapIndex.class);
+
+    private static final int SALARY_SCALE = 2;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int GRAM_LENGTH = 3;
+
+    private final boolean enabled;
+    private final long resyncIntervalMillis;
+    private final EmployeeRepository employeeRepository;
+    private final EmployeeShards shards;
+    private final EmployeeTableVersion tableVersion;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object loading = new Object();
+    private final ScheduledExecutorService scheduler;
+
+    private Table table = new Table();
+    private List<EmployeeChangedEvent> pending;
+    private long invalidations;
+
+    private volatile boolean ready;
+
+    EmployeeBitmapIndex(BitmapIndexProperties properties, EmployeeRepository employeeRepository, EmployeeShards shards,
+                        EmployeeTableVersion tableVersion, PlatformTransactionManager transactionManager) {
+        this.enabled = properties.enabled();
+        this.resyncIntervalMillis = properties.resyncInterval()
+                                              .toMillis();
+        this.employeeRepository = employeeRepository;
+        this.shards = shards;
+        this.tableVersion = tableVersion;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.readOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.scheduler = enabled && resyncIntervalMillis > 0 ? Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                                                                                                                 .name("employee-bitmap-resync")
+                                                                                                                 .daemon()
+                                                                                                                 .factory()) : null;
+    }
+
+    /**
+     * Returns the rows matching the example if this engine can answer it, or empty when the engine is
+     * disabled, still loading, the caller must see the primary ({@link ReadRouting#requiresPrimary()}; the copy
+     * may lag behind it), or the probe uses a matcher it does not index (regex, null checks, or a substring term
+     * shorter than a trigram).
+     */
+    Optional<Selection> select(Example<Employee> example) {
+        if (!ready || ReadRouting.requiresPrimary()) {
+            return Optional.empty();
+        }
+
+        NormalizedProbe probe = NormalizedProbe.of(example);
+        if (!supports(probe)) {
+            return Optional.empty();
+        }
+
+        lock.readLock()
+            .lock();
+        try {
+            AnswerVersions.report(table.versions);
+            return Optional.of(new Selection(table, table.evaluate(probe)));
+        } finally {
+            lock.readLock()
+                .unlock();
+        }
+    }
+
+    boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void loadOnStartup() {
+        if (!enabled) {
+            return;
+        }
+
+        reload();
+        if (scheduler != null) {
+            scheduler.scheduleWithFixedDelay(this::resync, resyncIntervalMillis, resyncIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Rebuilds the copy from the database while the current one keeps answering probes, picking up writes
+     * this node has no events for: those made through other nodes or by SQL outside Hibernate. Rows are read
+     * on the primary, since a replica may lack writes whose events were already applied.
+     */
+    void resync() {
+        try {
+            reload();
+        } catch (RuntimeException e) {
+            log.warn("Resyncing the bitmap index failed", e);
+        }
+    }
+
+    private void reload() {
+        long started = System.nanoTime();
+        Example<Employee> everyone = Example.of(new Employee());
+        int loaded = PrimaryReads.on(() -> load(tableVersion.counters(), () -> shards.stream(everyone, () -> employeeRepository.streamAll(everyone))));
+        log.info("Bitmap index loaded {} employees in {} ms", loaded, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Builds a new copy from {@code employees} without holding the lock, then swaps it in. Writes committed
+     * while the rows are read may or may not be part of them, so their events are buffered from before the
+     * query runs and replayed onto the new copy; replaying an event the rows already reflect is harmless.
+     * Loads run one at a time.
+     *
+     * @param versions the counters read before {@code employees}, so the rows include every write they count
+     */
+    int load(Map<String, Long> versions, Supplier<Stream<Employee>> employees) {
+        synchronized (loading) {
+            long invalidationsAtStart;
+            lock.writeLock()
+                .lock();
+            try {
+                pending = new ArrayList<>();
+                invalidationsAtStart = invalidations;
+            } finally {
+                lock.writeLock()
+                    .unlock();
+            }
+
+            Table loaded = new Table();
+            loaded.versions = Map.copyOf(versions);
+            try {
+                readOnlyTransaction.executeWithoutResult(status -> {
+                    try (Stream<Employee> rows = employees.get()) {
+                        rows.forEach(loaded::upsert);
+                    }
+                });
+            } catch (RuntimeException | Error e) {
+                lock.writeLock()
+                    .lock();
+                try {
+                    pending = null;
+                } finally {
+                    lock.writeLock()
+                        .unlock();
+                }
+                throw e;
+            }
+
+            lock.writeLock()
+                .lock();
+            try {
+                List<EmployeeChangedEvent> buffered = pending;
+                pending = null;
+                buffered.forEach(loaded::apply);
+                table = loaded;
+                // A bulk write committed since the query started may be missing; its own reload follows.
+                ready = invalidations == invalidationsAtStart;
+                return loaded.size();
+            } finally {
+                lock.writeLock()
+                    .unlock();
+            }
+        }
+    }
+
+    @Order(EmployeeTableVersion.APPLY_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    void onEmployeeChanged(EmployeeChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+
+        boolean applied = false;
+        lock.writeLock()
+            .lock();
+        try {
+            if (pending != null) {
+                pending.add(event);
+            }
+            table.apply(event);
+            applied = true;
+        } catch (RuntimeException e) {
+            // The copy may be half-updated; stop answering from it until it is rebuilt.
+            log.warn("Applying a change of employee {} to the bitmap index failed, rebuilding it", event.id(), e);
+            invalidations++;
+            ready = false;
+        } finally {
+            lock.writeLock()
+                .unlock();
+        }
+        if (!applied) {
+            resync();
+        }
+    }
+
+    @Order(EmployeeTableVersion.APPLY_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    void onEmployeeTableChanged(EmployeeTableChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+
+        lock.writeLock()
+            .lock();
+        try {
+            invalidations++;
+            ready = false;
+        } finally {
+            lock.writeLock()
+                .unlock();
+        }
+        reload();
+    }
+
+    /**
+     * The bump follows a write of this node that the copy already applied, so each counter the copy had right
+     * before the bump advances with it. A counter it had not reached yet stays behind until the next rebuild:
+     * the copy missed another node's write in between.
+     */
+    @EventListener
+    void onEmployeeVersionBumped(EmployeeVersionBumpedEvent event) {
+        if (!enabled) {
+            return;
+        }
+
+        lock.writeLock()
+            .lock();
+        try {
+            table.advance(event.counters());
+        } finally {
+            lock.writeLock()
+                .unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private static boolean supports(NormalizedProbe probe) {
+        if (!probe.shape()
+                  .bounds()
+                  .isEmpty()) {
+            return false;
+        }
+
+        List<ProbeShape.Condition> conditions = probe.shape()
+                                                     .conditions();
+        for (int i = 0; i < conditions.size(); i++) {
+            switch (conditions.get(i)
+                              .comparison()) {
+                case EQUALS -> {
+                }
+                case STARTS_WITH, ENDS_WITH, CONTAINS -> {
+                    if (NormalizedProbe.fold((String) probe.values()
+                                                           .get(i))
+                                       .length() < GRAM_LENGTH) {
+                        return false;
+                    }
+                }
+                default -> {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The rows selected by one probe, captured at the time of the call.
+     */
+    final class Selection {
+
+        private final Table table;
+        private final RoaringBitmap slotsSelected;
+
+        private Selection(Table table, RoaringBitmap slotsSelected) {
+            this.table = table;
+            this.slotsSelected = slotsSelected;
+        }
+
+        long count() {
+            return slotsSelected.getLongCardinality();
+        }
+
+        boolean exists() {
+            return !slotsSelected.isEmpty();
+        }
+
+        List<Employee> employees() {
+            lock.readLock()
+                .lock();
+            try {
+                List<Employee> employees = new ArrayList<>(slotsSelected.getCardinality());
+                IntIterator slotsIterator = slotsSelected.getIntIterator();
+                while (slotsIterator.hasNext()) {
+                    int slot = slotsIterator.next();
+                    if (table.live.contains(slot)) {
+                        employees.add(table.rowAt(slot));
+                    }
+                }
+                return employees;
+            } finally {
+                lock.readLock()
+                    .unlock();
+            }
+        }
+
+        /**
+         * The first {@code limit} selected rows with an id above {@code afterId}, in id order. While the selection
+         * is dense the ids are walked upwards from {@code afterId}, so a page costs about {@code limit} steps; a
+         * sparse one is scanned once instead, keeping the lowest ids, since a walk would pass many unselected rows
+         * per match. A page thus costs at most about {@code sqrt(limit * rows)} steps, and reading every page of a
+         * selection about as much as one pass over the table.
+         */
+        List<Employee> page(long afterId, int limit) {
+            lock.readLock()
+                .lock();
+            try {
+                long selected = Math.max(1, slotsSelected.getLongCardinality());
+                long walkSteps = limit * (long) table.size() / selected;
+                List<Integer> slots = walkSteps <= selected ? walk(afterId, limit) : lowest(afterId, limit);
+                List<Employee> employees = new ArrayList<>(slots.size());
+                for (int slot : slots) {
+                    employees.add(table.rowAt(slot));
+                }
+                return employees;
+            } finally {
+                lock.readLock()
+                    .unlock();
+            }
+        }
+
+        private List<Integer> walk(long afterId, int limit) {
+            List<Integer> slots = new ArrayList<>(limit);
+            for (int slot : table.slotById.tailMap(afterId, false)
+                                          .values()) {
+                if (slotsSelected.contains(slot)) {
+                    slots.add(slot);
+                    if (slots.size() == limit) {
+                        break;
+                    }
+                }
+            }
+            return slots;
+        }
+
+        private List<Integer> lowest(long afterId, int limit) {
+            PriorityQueue<Integer> highestFirst = new PriorityQueue<>(Comparator.comparingLong((Integer slot) -> table.ids[slot])
+                                                                                .reversed());
+            IntIterator slotsIterator = slotsSelected.getIntIterator();
+            while (slotsIterator.hasNext()) {
+                int slot = slotsIterator.next();
+                if (table.live.contains(slot) && table.ids[slot] > afterId) {
+                    highestFirst.add(slot);
+                    if (highestFirst.size() > limit) {
+                        highestFirst.poll();
+                    }
+                }
+            }
+            List<Integer> slots = new ArrayList<>(highestFirst);
+            slots.sort(Comparator.comparingLong(slot -> table.ids[slot]));
+            return slots;
+        }
+
+        Optional<Employee> one() {
+            if (slotsSelected.getCardinality() > 1) {
+                throw new IncorrectResultSizeDataAccessException(1, slotsSelected.getCardinality());
+            }
+            return employees().stream()
+                              .findFirst();
+        }
+
+    }
+
+    /**
+     * One copy of the table: a slot per row, with its id and salary in arrays, a bitmap per distinct salary,
+     * its strings in the dictionary columns, and the counters it has applied. Salaries are kept as the
+     * {@code decimal(38,2)} column stores them: rounded half up to two places. Guarded by the index's lock once
+     * it is swapped in.
+     */
+    private static final class Table {
+
+        private final Map<EmployeeAttribute, DictionaryColumn> stringColumns = new EnumMap<>(EmployeeAttribute.class);
+        private final NavigableMap<Long, Integer> slotById = new TreeMap<>();
+        private final RoaringBitmap live = new RoaringBitmap();
+        private long[] ids = new long[INITIAL_CAPACITY];
+        private BigDecimal[] salaries = new BigDecimal[INITIAL_CAPACITY];
+        private final Map<BigDecimal, RoaringBitmap> slotsBySalary = new HashMap<>();
+        private int slots;
+        private Map<String, Long> versions = Map.of();
+
+        private Table() {
+            for (EmployeeAttribute attribute : EmployeeAttribute.values()) {
+                if (attribute.isString()) {
+                    stringColumns.put(attribute, new DictionaryColumn());
+                }
+            }
+        }
+
+        int size() {
+            return live.getCardinality();
+        }
+
+        void advance(Map<String, Long> counters) {
+            Map<String, Long> advanced = new HashMap<>(versions);
+            counters.forEach((region, counter) -> {
+                if (advanced.getOrDefault(region, 0L) == counter - 1) {
+                    advanced.put(region, counter);
+                }
+            });
+            versions = Map.copyOf(advanced);
+        }
+
+        void apply(EmployeeChangedEvent event) {
+            if (event.after() == null) {
+                remove(event.id());
+            } else {
+                upsert(event.after());
+            }
+        }
+
+        RoaringBitmap evaluate(NormalizedProbe probe) {
+            if (probe.shape()
+                     .isUnconstrained()) {
+                return live.clone();
+            }
+
+            List<ProbeShape.Condition> conditions = probe.shape()
+                                                         .conditions();
+            RoaringBitmap result = null;
+            for (int i = 0; i < conditions.size(); i++) {
+                RoaringBitmap matches = evaluate(conditions.get(i), probe.values()
+                                                                         .get(i));
+                if (result == null) {
+                    result = matches.clone();
+                } else if (probe.shape()
+                                .allMatching()) {
+                    result.and(matches);
+                } else {
+                    result.or(matches);
+                }
+                if (result.isEmpty() && probe.shape()
+                                             .allMatching()) {
+                    break;
+                }
+            }
+            return result;
+        }
+
+        private RoaringBitmap evaluate(ProbeShape.Condition condition, Object value) {
+            return switch (condition.attribute()) {
+                case ID -> {
+                    Integer slot = slotById.get((Long) value);
+                    yield slot == null ? new RoaringBitmap() : RoaringBitmap.bitmapOf(slot);
+                }
+                case SALARY -> salaryEquals((BigDecimal) value);
+                default -> stringColumns.get(condition.attribute())
+                                        .matching(condition.comparison(), (String) value);
+            };
+        }
+
+        /**
+         * A probe value with more significant places than the column has equals no stored salary, as in MySQL.
+         */
+        private RoaringBitmap salaryEquals(BigDecimal salary) {
+            BigDecimal stored;
+            try {
+                stored = salary.setScale(SALARY_SCALE, RoundingMode.UNNECESSARY);
+            } catch (ArithmeticException e) {
+                return new RoaringBitmap();
+            }
+            RoaringBitmap bitmap = slotsBySalary.get(stored);
+            return bitmap == null ? new RoaringBitmap() : bitmap;
+        }
+
+        void upsert(Employee employee) {
+            BigDecimal salary = employee.getSalary() == null ? null : employee.getSalary()
+                                                                              .setScale(SALARY_SCALE, RoundingMode.HALF_UP);
+            Integer existing = slotById.get(employee.getId());
+            int slot;
+            if (existing != null) {
+                slot = existing;
+            } else {
+                slot = slots++;
+                ensureCapacity(slots);
+                slotById.put(employee.getId(), slot);
+                ids[slot] = employee.getId();
+                live.add(slot);
+            }
+
+            for (Map.Entry<EmployeeAttribute, DictionaryColumn> column : stringColumns.entrySet()) {
+                column.getValue()
+                      .set(slot, (String) column.getKey()
+                                                .valueOf(employee));
+            }
+            setSalary(slot, salary);
+        }
+
+        private void remove(Long id) {
+            Integer slot = slotById.remove(id);
+            if (slot == null) {
+                return;
+            }
+
+            live.remove(slot);
+            for (DictionaryColumn column : stringColumns.values()) {
+                column.set(slot, null);
+            }
+            setSalary(slot, null);
+        }
+
+        private void setSalary(int slot, BigDecimal salary) {
+            BigDecimal previous = salaries[slot];
+            if (previous != null) {
+                RoaringBitmap bitmap = slotsBySalary.get(previous);
+                bitmap.remove(slot);
+                if (bitmap.isEmpty()) {
+                    slotsBySalary.remove(previous);
+                }
+            }
+
+            salaries[slot] = salary;
+            if (salary != null) {
+                slotsBySalary.computeIfAbsent(salary, key -> new RoaringBitmap())
+                             .add(slot);
+            }
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity > ids.length) {
+                int grown = Math.max(capacity, ids.length + (ids.length >> 1));
+                ids = Arrays.copyOf(ids, grown);
+                salaries = Arrays.copyOf(salaries, grown);
+            }
+            for (DictionaryColumn column : stringColumns.values()) {
+                column.ensureCapacity(capacity);
+            }
+        }
+
+        Employee rowAt(int slot) {
+            return Employee.builder()
+                           .id(ids[slot])
+                           .firstName(stringColumns.get(EmployeeAttribute.FIRST_NAME)
+                                                   .value(slot))
+                           .lastName(stringColumns.get(EmployeeAttribute.LAST_NAME)
+                                                  .value(slot))
+                           .department(stringColumns.get(EmployeeAttribute.DEPARTMENT)
+                                                    .value(slot))
+                           .position(stringColumns.get(EmployeeAttribute.POSITION)
+                                                  .value(slot))
+                           .salary(salaries[slot])
+                           .build();
+        }
+
+    }
+
+    private static Set<String> grams(String folded) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= folded.length(); i++) {
+            grams.add(folded.substring(i, i + GRAM_LENGTH));
+        }
+        return grams;
+    }
+
+    /**
+     * A dictionary-encoded string column with one bitmap per collation-folded value, and a trigram index
+     * from each gram to the folded values containing it.
+     */
+    private static final class DictionaryColumn {
+
+        private static final int NULL_CODE = -1;
+
+        private final List<String> dictionary = new ArrayList<>();
+        private final Map<String, Integer> codeByValue = new HashMap<>();
+        private final Map<String, RoaringBitmap> bitmapByFoldedValue = new HashMap<>();
+        private final List<String> foldedValues = new ArrayList<>();
+        private final Map<String, Integer> foldedCodeByValue = new HashMap<>();
+        private final Map<String, RoaringBitmap> foldedCodesByGram = new HashMap<>();
+        private int[] codes = filledCodes(INITIAL_CAPACITY);
+
+        RoaringBitmap matching(ProbeShape.Comparison comparison, String value) {
+            String folded = NormalizedProbe.fold(value);
+            if (comparison == ProbeShape.Comparison.EQUALS) {
+                RoaringBitmap bitmap = bitmapByFoldedValue.get(folded);
+                return bitmap == null ? new RoaringBitmap() : bitmap;
+            }
+
+            RoaringBitmap candidates = null;
+            for (String gram : grams(folded)) {
+                RoaringBitmap postings = foldedCodesByGram.get(gram);
+                if (postings == null) {
+                    return new RoaringBitmap();
+                }
+                candidates = candidates == null ? postings.clone() : RoaringBitmap.and(candidates, postings);
+            }
+
+            RoaringBitmap matches = new RoaringBitmap();
+            IntIterator candidateCodes = candidates.getIntIterator();
+            while (candidateCodes.hasNext()) {
+                String candidate = foldedValues.get(candidateCodes.next());
+                boolean matched = switch (comparison) {
+                    case STARTS_WITH -> candidate.startsWith(folded);
+                    case ENDS_WITH -> candidate.endsWith(folded);
+                    default -> candidate.contains(folded);
+                };
+                if (matched) {
+                    matches.or(bitmapByFoldedValue.get(candidate));
+                }
+            }
+            return matches;
+        }
+
+        String value(int slot) {
+            int code = codes[slot];
+            return code == NULL_CODE ? null : dictionary.get(code);
+        }
+
+        void set(int slot, String value) {
+            String previous = value(slot);
+            if (previous != null) {
+                String folded = NormalizedProbe.fold(previous);
+                RoaringBitmap bitmap = bitmapByFoldedValue.get(folded);
+                bitmap.remove(slot);
+                if (bitmap.isEmpty()) {
+                    bitmapByFoldedValue.remove(folded);
+                    unindexGrams(folded);
+                }
+            }
+
+            if (value == null) {
+                codes[slot] = NULL_CODE;
+                return;
+            }
+            codes[slot] = codeByValue.computeIfAbsent(value, key -> {
+                dictionary.add(key);
+                return dictionary.size() - 1;
+            });
+            bitmapByFoldedValue.computeIfAbsent(NormalizedProbe.fold(value), this::indexGrams)
+                               .add(slot);
+        }
+
+        private RoaringBitmap indexGrams(String folded) {
+            int code = foldedValues.size();
+            foldedValues.add(folded);
+            foldedCodeByValue.put(folded, code);
+            for (String gram : grams(folded)) {
+                foldedCodesByGram.computeIfAbsent(gram, key -> new RoaringBitmap())
+                                 .add(code);
+            }
+            return new RoaringBitmap();
+        }
+
+        private void unindexGrams(String folded) {
+            int code = foldedCodeByValue.remove(folded);
+            foldedValues.set(code, null);
+            for (String gram : grams(folded)) {
+                RoaringBitmap postings = foldedCodesByGram.get(gram);
+                postings.remove(code);
+                if (postings.isEmpty()) {
+                    foldedCodesByGram.remove(gram);
+                }
+            }
+        }
+
+        void ensureCapacity(int capacity) {
+            if (capacity > codes.length) {
+                int previousLength = codes.length;
+                codes = Arrays.copyOf(codes, Math.max(capacity, previousLength + (previousLength >> 1)));
+                Arrays.fill(codes, previousLength, codes.length, NULL_CODE);
+            }
+        }
+
+        private static int[] filledCodes(int capacity) {
+            int[] codes = new int[capacity];
+            Arrays.fill(codes, NULL_CODE);
+            return codes;
+        }
+
+    }
+
+}
@@ -0,0 +1,119 @@
+package com.spring.qbe.employee;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps this node's view of the {@code employees} table coherent with writes made through other nodes, by
+ * polling the counters of {@link EmployeeTableVersion}, which every committed transaction that wrote employees
+ * bumps once. Each poll advances the counters the node knows of, from which conditional requests are answered.
+ * <p>
+ * With the Hibernate caches of {@link Employee} enabled, a poll that finds the table-wide counter moved because
+ * of another node first evicts the entity and query cache regions, so that no answer read after the counters
+ * advance comes from them. Writes made through this node are already applied to its own caches by Hibernate,
+ * so they cause no local eviction unless another node wrote in between.
+ * <p>
+ * Eviction is per region, not per row: a counter cannot lose an update the way a change log read by id can
+ * when concurrent inserts commit out of order.
+ */
+@Component
+class EmployeeCacheInvalidator implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(EmployeeCacheInvalidator.class);
+
+    private static final long UNKNOWN = -1;
+
+    private final boolean enabled;
+    private final long pollIntervalMillis;
+    private final EmployeeTableVersion tableVersion;
+    private final EntityManagerFactory entityManagerFactory;
+    private final AtomicLong seenVersion = new AtomicLong(UNKNOWN);
+    private final ScheduledExecutorService scheduler;
+
+    EmployeeCacheInvalidator(SecondLevelCacheProperties properties, EmployeeTableVersion tableVersion,
+                             EntityManagerFactory entityManagerFactory) {
+        this.enabled = properties.enabled();
+        this.pollIntervalMillis = properties.pollInterval()
+                                            .toMillis();
+        this.tableVersion = tableVersion;
+        this.entityManagerFactory = entityManagerFactory;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                                                                          .name("employee-cache-invalidator")
+                                                                          .daemon()
+                                                                          .factory());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        poll();
+        scheduler.scheduleWithFixedDelay(this::poll, pollIntervalMillis, pollIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Skips our own write, but only if nobody else wrote since the last version we saw.
+     */
+    @EventListener
+    void onEmployeeVersionBumped(EmployeeVersionBumpedEvent event) {
+        if (enabled) {
+            seenVersion.compareAndSet(event.version() - 1, event.version());
+        }
+    }
+
+    /**
+     * Bulk writes bypass the entity cache, so they are evicted locally as well as announced.
+     */
+    @Order(EmployeeTableVersion.APPLY_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    void onEmployeeTableChanged(EmployeeTableChangedEvent event) {
+        if (enabled) {
+            evict();
+        }
+    }
+
+    void poll() {
+        try {
+            Map<String, Long> counters = tableVersion.counters();
+            long version = versionOf(counters);
+            long seen = seenVersion.get();
+            if (seen == UNKNOWN) {
+                seenVersion.compareAndSet(UNKNOWN, version);
+            } else if (enabled && version != seen && seenVersion.compareAndSet(seen, version)) {
+                evict();
+            }
+            tableVersion.advance(counters);
+        } catch (RuntimeException e) {
+            log.warn("Polling cache versions failed", e);
+        }
+    }
+
+    private static long versionOf(Map<String, Long> counters) {
+        return counters.getOrDefault(Employee.CACHE_REGION, 0L);
+    }
+
+    private void evict() {
+        entityManagerFactory.getCache()
+                            .evict(Employee.class);
+        entityManagerFactory.unwrap(SessionFactory.class)
+                            .getCache()
+                            .evictQueryRegion(Employee.QUERY_CACHE_REGION);
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+}
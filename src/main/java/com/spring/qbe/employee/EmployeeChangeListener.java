@@ -0,0 +1,93 @@
+package com.spring.qbe.employee;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+
+/**
+ * Turns Hibernate's row-level write events for {@link Employee} into {@link EmployeeChangedEvent}s, so read-side
+ * structures can follow every {@code EmployeeRepository.save}/{@code delete}. Events are published inside the
+ * writing transaction; listeners that must only see committed data use {@code @TransactionalEventListener}.
+ */
+@Component
+class EmployeeChangeListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    EmployeeChangeListener(EntityManagerFactory entityManagerFactory, ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                                                             .getServiceRegistry()
+                                                             .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Employee) {
+            Employee after = snapshot(event.getPersister(), event.getId(), event.getState());
+            eventPublisher.publishEvent(new EmployeeChangedEvent(null, after));
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (event.getEntity() instanceof Employee) {
+            if (event.getOldState() == null) {
+                eventPublisher.publishEvent(new EmployeeTableChangedEvent("update of employee " + event.getId() + " without loaded state"));
+                return;
+            }
+            Employee before = snapshot(event.getPersister(), event.getId(), event.getOldState());
+            Employee after = snapshot(event.getPersister(), event.getId(), event.getState());
+            eventPublisher.publishEvent(new EmployeeChangedEvent(before, after));
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Employee) {
+            Employee before = snapshot(event.getPersister(), event.getId(), event.getDeletedState());
+            eventPublisher.publishEvent(new EmployeeChangedEvent(before, null));
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    private static Employee snapshot(EntityPersister persister, Object id, Object[] state) {
+        Employee employee = Employee.builder()
+                                    .id((Long) id)
+                                    .build();
+        String[] propertyNames = persister.getPropertyNames();
+        for (int i = 0; i < propertyNames.length; i++) {
+            switch (propertyNames[i]) {
+                case "firstName" -> employee.setFirstName((String) state[i]);
+                case "lastName" -> employee.setLastName((String) state[i]);
+                case "department" -> employee.setDepartment((String) state[i]);
+                case "position" -> employee.setPosition((String) state[i]);
+                case "salary" -> employee.setSalary((BigDecimal) state[i]);
+                default -> {
+                }
+            }
+        }
+        return employee;
+    }
+
+}
@@ -0,0 +1,13 @@
+package com.spring.qbe.employee;
+
+/**
+ * A committed write to a single employee row. {@code before} is {@code null} for inserts and {@code after}
+ * is {@code null} for deletes; both are detached snapshots that are safe to keep.
+ */
+public record EmployeeChangedEvent(Employee before, Employee after) {
+
+    public Long id() {
+        return after != null ? after.getId() : before.getId();
+    }
+
+}
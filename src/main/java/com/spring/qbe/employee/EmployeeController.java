@@ -1,32 +1,158 @@
 package com.spring.qbe.employee;
 
+import com.spring.qbe.config.ReadRouting;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import org.springframework.data.domain.Window;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 
 @RestController
 @RequestMapping("/api/employees")
 public class EmployeeController {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final String DEFAULT_PAGE_SIZE = "100";
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int MAX_BATCH_SIZE = 1000;
+
     private final EmployeeService employeeService;
+    private final EmployeeNdjsonWriter ndjsonWriter;
+    private final EmployeeImporter importer;
+    private final EmployeeExporter exporter;
+    private final EmployeeAggregates aggregates;
+    private final EmployeeTableVersion tableVersion;
 
-    public EmployeeController(EmployeeService employeeService) {
+    public EmployeeController(EmployeeService employeeService, EmployeeNdjsonWriter ndjsonWriter, EmployeeImporter importer,
+                              EmployeeExporter exporter, EmployeeAggregates aggregates, EmployeeTableVersion tableVersion) {
         this.employeeService = employeeService;
+        this.ndjsonWriter = ndjsonWriter;
+        this.importer = importer;
+        this.exporter = exporter;
+        this.aggregates = aggregates;
+        this.tableVersion = tableVersion;
     }
 
+    /**
+     * Carries an ETag naming the table version the page was read at. A matching {@code If-None-Match} is
+     * answered with 304 from the version this node knows, before any query runs.
+     * <p>
+     * The headers are set on the response rather than returned in a {@code ResponseEntity}, whose ETag Spring
+     * would check against {@code If-None-Match} once more: a copy may have applied writes its label does not
+     * name yet, so an equal label does not mean an equal page.
+     */
     @GetMapping("/search")
     public List<Employee> searchEmployees(
         @RequestParam(required = false) String firstName,
-        @RequestParam(required = false) String department
+        @RequestParam(required = false) String department,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) @Min(1) @Max(MAX_PAGE_SIZE) int size,
+        WebRequest request,
+        HttpServletResponse response
+    ) {
+        Object[] search = {"search", firstName, department, cursor, size, request.getHeader(HttpHeaders.ACCEPT)};
+        if (request.checkNotModified(tableVersion.etag(null, search))) {
+            return null;
+        }
+        AnswerVersions.Versioned<Window<Employee>> page = AnswerVersions.collect(() -> employeeService
+            .findEmployeesWithCustomMatcher(firstName, department, EmployeeCursor.decode(cursor), size));
+        response.setHeader(HttpHeaders.ETAG, tableVersion.etagAt(page.versions(), null, search));
+        String nextCursor = nextCursor(page.value(), Employee::getId);
+        if (nextCursor != null) {
+            response.setHeader(NEXT_CURSOR_HEADER, nextCursor);
+        }
+        return page.value()
+                   .getContent();
+    }
+
+    /**
+     * Optional {@code range} parameters add inclusive bounds on numeric fields next to the example,
+     * e.g. {@code ?range=salary:80000..100000}; either end may be left empty.
+     */
+    @PostMapping(value = "/search/example", produces = {MediaType.APPLICATION_JSON_VALUE, EmployeeBinaryCodec.MEDIA_TYPE_VALUE})
+    public ResponseEntity<List<Employee>> findByExample(
+        @RequestBody @Valid Employee employee,
+        @RequestParam(required = false) List<String> range,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) @Min(1) @Max(MAX_PAGE_SIZE) int size
+    ) {
+        List<EmployeeRange> ranges = parseRanges(range);
+        Window<Employee> page = ranges.isEmpty()
+            ? employeeService.findEmployeesByExample(employee, EmployeeCursor.decode(cursor), size)
+            : employeeService.findEmployeesByExample(employee, ranges, EmployeeCursor.decode(cursor), size);
+        return toResponse(page);
+    }
+
+    /**
+     * Returns only {@code id} and the requested {@code fields} of each match, e.g. {@code ?fields=firstName,lastName}.
+     */
+    @PostMapping(value = "/search/example", params = "fields", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<Map<String, Object>>> findProjectedByExample(
+        @RequestBody @Valid Employee employee,
+        @RequestParam List<String> fields,
+        @RequestParam(required = false) List<String> range,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) @Min(1) @Max(MAX_PAGE_SIZE) int size
+    ) {
+        Window<Map<String, Object>> page = employeeService
+            .findEmployeesByExample(employee, fields, parseRanges(range), EmployeeCursor.decode(cursor), size);
+        return toResponse(page, row -> (Long) row.get("id"));
+    }
+
+    /**
+     * How the database would run the first page of {@link #findByExample} for this probe, ranges and page size:
+     * the keyset statement explained ({@code statement} and {@code sql}), its {@code EXPLAIN} plan, estimated
+     * rows and the indexes used. Nothing is searched.
+     */
+    @PostMapping("/search/example/explain")
+    public ProbePlan explainByExample(
+        @RequestBody @Valid Employee employee,
+        @RequestParam(required = false) List<String> range,
+        @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) @Min(1) @Max(MAX_PAGE_SIZE) int size
+    ) {
+        return employeeService.explainEmployeesByExample(employee, parseRanges(range), size);
+    }
+
+    /**
+     * Like {@link #explainByExample}, for the probe of {@link #searchEmployees}.
+     */
+    @GetMapping("/search/explain")
+    public ProbePlan explainSearch(
+        @RequestParam(required = false) String firstName,
+        @RequestParam(required = false) String department,
+        @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) @Min(1) @Max(MAX_PAGE_SIZE) int size
     ) {
-        return employeeService
-            .findEmployeesWithCustomMatcher(firstName, department);
+        return employeeService.explainEmployeesWithCustomMatcher(firstName, department, size);
     }
 
-    @PostMapping("/search/example")
-    public List<Employee> findByExample(@RequestBody @Valid Employee employee) {
-        return employeeService.findEmployeesByExample(employee);
+    /**
+     * Export-style variant of {@link #findByExample}: streams every match as one JSON object per line
+     * while it is read from the database cursor. The body is written on the MVC async executor, with the
+     * read routing of this request.
+     */
+    @PostMapping(value = "/search/example", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public StreamingResponseBody streamByExample(@RequestBody @Valid Employee employee) {
+        ReadRouting routing = ReadRouting.capture();
+        return outputStream -> routing.run(() -> {
+            try (EmployeeNdjsonWriter.Session session = ndjsonWriter.open(outputStream)) {
+                employeeService.streamEmployeesByExample(employee, session);
+            }
+        });
     }
 
     @PostMapping("/search/example/one")
@@ -35,14 +161,114 @@ public class EmployeeController {
                               .orElseThrow(() -> new EmployeeNotFoundException("No employee found matching the example"));
     }
 
+    /**
+     * Evaluates many probes in one call. The response maps each probe's index in the request to its matches.
+     */
+    @PostMapping("/search/example/batch")
+    public Map<Integer, List<Employee>> findByExamples(@RequestBody @Size(min = 1, max = MAX_BATCH_SIZE) List<@Valid Employee> employees) {
+        List<List<Employee>> results = employeeService.findEmployeesByExamples(employees);
+        Map<Integer, List<Employee>> resultsByIndex = new LinkedHashMap<>();
+        for (int i = 0; i < results.size(); i++) {
+            resultsByIndex.put(i, results.get(i));
+        }
+        return resultsByIndex;
+    }
+
     @PostMapping("/count")
     public long countByExample(@RequestBody @Valid Employee employee) {
         return employeeService.countEmployeesByExample(employee);
     }
 
+    /**
+     * Query-parameter form of {@link #countByExample} for polling clients, e.g. {@code ?department=IT}.
+     * Carries an ETag naming the version, of only the writes the count can depend on, it was read at; a
+     * matching {@code If-None-Match} is answered with 304 like in {@link #searchEmployees}.
+     */
+    @GetMapping("/count")
+    public Long countByExample(@ModelAttribute Employee employee, WebRequest request, HttpServletResponse response) {
+        Object[] count = {"count", employee.getId(), employee.getFirstName(), employee.getLastName(), employee.getDepartment(),
+            employee.getPosition(), employee.getSalary()};
+        if (request.checkNotModified(tableVersion.etag(employee.getDepartment(), count))) {
+            return null;
+        }
+        AnswerVersions.Versioned<Long> counted = AnswerVersions.collect(() -> employeeService.countEmployeesByExample(employee));
+        response.setHeader(HttpHeaders.ETAG, tableVersion.etagAt(counted.versions(), employee.getDepartment(), count));
+        return counted.value();
+    }
+
     @PostMapping("/exists")
     public boolean existsByExample(@RequestBody @Valid Employee employee) {
         return employeeService.existsByExample(employee);
     }
 
+    /**
+     * Headcount and salary sum/min/max/avg per department and position, optionally for one department,
+     * read from an incrementally maintained summary.
+     */
+    @GetMapping("/aggregates")
+    public List<EmployeeAggregate> aggregates(@RequestParam(required = false) String department) {
+        return aggregates.aggregates(department);
+    }
+
+    /**
+     * Bulk loads the request body, a CSV file with a header line, while it is being received.
+     */
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ImportReport importCsv(InputStream body) {
+        return importer.importCsv(body);
+    }
+
+    /**
+     * Bulk loads the request body, one JSON employee per line, while it is being received.
+     */
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ImportReport importNdjson(InputStream body) {
+        return importer.importNdjson(body);
+    }
+
+    /**
+     * Streams every employee matching the probe given as query parameters (all employees without any),
+     * e.g. {@code ?format=csv&department=IT}. The CSV form can be fed back to {@link #importCsv}. Like
+     * {@link #streamByExample}, the body is written with the read routing of this request.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(
+        @ModelAttribute Employee employee,
+        @RequestParam(defaultValue = "ndjson") @Pattern(regexp = "csv|ndjson") String format
+    ) {
+        EmployeeExporter.Format exportFormat = EmployeeExporter.Format.forName(format);
+        ReadRouting routing = ReadRouting.capture();
+        return ResponseEntity.ok()
+                             .contentType(exportFormat.mediaType())
+                             .body(outputStream -> routing.run(() -> exporter.export(employee, exportFormat, outputStream)));
+    }
+
+    static List<EmployeeRange> parseRanges(List<String> ranges) {
+        return ranges == null ? List.of() : ranges.stream()
+                                                  .map(EmployeeRange::parse)
+                                                  .toList();
+    }
+
+    private static ResponseEntity<List<Employee>> toResponse(Window<Employee> page) {
+        return toResponse(page, Employee::getId);
+    }
+
+    private static <T> ResponseEntity<List<T>> toResponse(Window<T> page, Function<T, Long> idOf) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        String nextCursor = nextCursor(page, idOf);
+        if (nextCursor != null) {
+            response.header(NEXT_CURSOR_HEADER, nextCursor);
+        }
+        return response.body(page.getContent());
+    }
+
+    private static <T> String nextCursor(Window<T> page, Function<T, Long> idOf) {
+        if (!page.hasNext() || page.isEmpty()) {
+            return null;
+        }
+        T last = page.getContent()
+                     .get(page.size() - 1);
+        return EmployeeCursor.encode(idOf.apply(last));
+    }
+
 }
@@ -0,0 +1,201 @@
+package com.spring.qbe.employee;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * Reads employees from CSV one record at a time. The first record is a header naming the columns, either as
+ * properties ({@code firstName}) or as columns ({@code first_name}); an {@code id} column is ignored because
+ * imported rows always get fresh ids. Fields may be quoted, with {@code ""} for a literal quote, and quoted
+ * fields may span lines. An empty field is read as {@code null} and a quoted empty field as the empty string,
+ * so whatever {@link EmployeeExporter} writes reads back unchanged.
+ */
+class EmployeeCsvReader implements Iterator<Employee>, Closeable {
+
+    private final BufferedReader reader;
+    private final EmployeeAttribute[] columns;
+    private long lineNumber;
+    private long recordLine;
+    private Employee next;
+
+    EmployeeCsvReader(Reader reader) {
+        this.reader = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader);
+        List<String> header = readRecord();
+        if (header == null || header.isEmpty()) {
+            throw new InvalidImportException("CSV input has no header line");
+        }
+        this.columns = parseHeader(header);
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (next == null) {
+            List<String> fields = readRecord();
+            if (fields == null) {
+                return false;
+            }
+            if (!fields.isEmpty()) {
+                next = parseRow(fields);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public Employee next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Employee employee = next;
+        next = null;
+        return employee;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private EmployeeAttribute[] parseHeader(List<String> names) {
+        EmployeeAttribute[] attributes = new EmployeeAttribute[names.size()];
+        for (int i = 0; i < names.size(); i++) {
+            String name = Objects.toString(names.get(i), "")
+                                 .replace("_", "")
+                                 .strip()
+                                 .toLowerCase(Locale.ROOT);
+            for (EmployeeAttribute attribute : EmployeeAttribute.values()) {
+                if (attribute.property()
+                             .toLowerCase(Locale.ROOT)
+                             .equals(name)) {
+                    attributes[i] = attribute;
+                }
+            }
+            if (attributes[i] == null) {
+                throw new InvalidImportException("Unknown CSV column: " + names.get(i));
+            }
+        }
+        return attributes;
+    }
+
+    private Employee parseRow(List<String> fields) {
+        if (fields.size() != columns.length) {
+            throw new InvalidImportException("Line " + recordLine + " has " + fields.size() + " fields, expected " + columns.length);
+        }
+
+        Employee employee = new Employee();
+        for (int i = 0; i < columns.length; i++) {
+            String value = fields.get(i);
+            if (value == null) {
+                continue;
+            }
+            switch (columns[i]) {
+                case ID -> {
+                }
+                case FIRST_NAME -> employee.setFirstName(value);
+                case LAST_NAME -> employee.setLastName(value);
+                case DEPARTMENT -> employee.setDepartment(value);
+                case POSITION -> employee.setPosition(value);
+                case SALARY -> employee.setSalary(parseSalary(value));
+            }
+        }
+        return employee;
+    }
+
+    private BigDecimal parseSalary(String value) {
+        try {
+            return new BigDecimal(value.strip());
+        } catch (NumberFormatException e) {
+            throw new InvalidImportException("Line " + recordLine + " has an invalid salary: " + value, e);
+        }
+    }
+
+    /**
+     * Reads the fields of the next record: up to a line break outside quotes ({@code \n}, {@code \r\n} or
+     * {@code \r}) or the end of the input. Returns {@code null} at the end of the input and no fields for a
+     * blank line.
+     */
+    private List<String> readRecord() {
+        int c = read();
+        if (c == -1) {
+            return null;
+        }
+        recordLine = ++lineNumber;
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean wasQuoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new InvalidImportException("Line " + recordLine + " has an unterminated quoted field");
+                }
+                if (c != '"') {
+                    if (c == '\n' || c == '\r' && peek() != '\n') {
+                        lineNumber++;
+                    }
+                    field.append((char) c);
+                } else if (peek() == '"') {
+                    field.append('"');
+                    read();
+                } else {
+                    quoted = false;
+                }
+            } else if (c == -1 || c == '\n' || c == '\r') {
+                if (c == '\r' && peek() == '\n') {
+                    read();
+                }
+                if (fields.isEmpty() && !wasQuoted && field.toString()
+                                                           .isBlank()) {
+                    return List.of();
+                }
+                fields.add(field(field, wasQuoted));
+                return fields;
+            } else if (c == '"') {
+                quoted = true;
+                wasQuoted = true;
+            } else if (c == ',') {
+                fields.add(field(field, wasQuoted));
+                field.setLength(0);
+                wasQuoted = false;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    private static String field(StringBuilder field, boolean quoted) {
+        return field.isEmpty() && !quoted ? null : field.toString();
+    }
+
+    private int read() {
+        try {
+            return reader.read();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private int peek() {
+        try {
+            reader.mark(1);
+            int c = reader.read();
+            reader.reset();
+            return c;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+}
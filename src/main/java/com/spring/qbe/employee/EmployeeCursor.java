@@ -0,0 +1,45 @@
+package com.spring.qbe.employee;
+
+import org.springframework.data.domain.ScrollPosition;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+
+/**
+ * Opaque continuation token for keyset pagination over {@code employees.id}.
+ * Clients must treat the value as a black box and hand it back unchanged.
+ */
+final class EmployeeCursor {
+
+    private static final String PREFIX = "id:";
+
+    private EmployeeCursor() {
+    }
+
+    static String encode(Long lastId) {
+        byte[] raw = (PREFIX + lastId).getBytes(StandardCharsets.UTF_8);
+        return Base64.getUrlEncoder()
+                     .withoutPadding()
+                     .encodeToString(raw);
+    }
+
+    static ScrollPosition decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+
+        try {
+            String raw = new String(Base64.getUrlDecoder()
+                                          .decode(cursor), StandardCharsets.UTF_8);
+            if (!raw.startsWith(PREFIX)) {
+                throw new InvalidCursorException("Malformed cursor: " + cursor);
+            }
+            long lastId = Long.parseLong(raw.substring(PREFIX.length()));
+            return ScrollPosition.forward(Map.of("id", lastId));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Malformed cursor: " + cursor, e);
+        }
+    }
+
+}
@@ -0,0 +1,50 @@
+package com.spring.qbe.employee;
+
+import org.springframework.data.domain.Example;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Overrides the query-by-example methods of {@link org.springframework.data.repository.query.QueryByExampleExecutor}
+ * with queries compiled once per probe shape instead of a Criteria query built for every call.
+ */
+public interface EmployeeExampleRepository {
+
+    <S extends Employee> List<S> findAll(Example<S> example);
+
+    <S extends Employee> Optional<S> findOne(Example<S> example);
+
+    <S extends Employee> long count(Example<S> example);
+
+    <S extends Employee> boolean exists(Example<S> example);
+
+    /**
+     * Evaluates many examples with one statement per probe shape instead of one per example.
+     * The result has one list of matches per example, in the order of {@code examples}.
+     */
+    List<List<Employee>> findAllForEach(List<Example<Employee>> examples);
+
+    /**
+     * Selects at most {@code limit} matches of the example that also fall within all {@code ranges} and have
+     * an id greater than {@code afterId}, in id order. The ranges become SQL predicates next to the example's.
+     */
+    List<Employee> findWithin(Example<Employee> example, List<EmployeeRange> ranges, long afterId, int limit);
+
+    /**
+     * Selects only {@code id} and the given properties of at most {@code limit} matches with an id greater
+     * than {@code afterId}, in id order, restricted to {@code ranges} as in {@link #findWithin}. Rows come back
+     * as scalar values keyed by property name, so no entities are instantiated or tracked by the persistence context.
+     */
+    List<Map<String, Object>> findProjected(Example<Employee> example, List<EmployeeRange> ranges, List<String> properties, long afterId, int limit);
+
+    /**
+     * Streams all matches in id order as scalar rows, one value per {@link EmployeeAttribute} in declaration
+     * order, through a forward-only cursor that fetches {@code fetchSize} rows at a time. No entities are
+     * instantiated. The stream must be consumed and closed inside the caller's transaction.
+     */
+    Stream<Object[]> streamValues(Example<Employee> example, int fetchSize);
+
+}
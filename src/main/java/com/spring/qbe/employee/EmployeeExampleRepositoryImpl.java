@@ -0,0 +1,198 @@
+package com.spring.qbe.employee;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TupleElement;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.data.domain.Example;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+@Transactional(readOnly = true)
+class EmployeeExampleRepositoryImpl implements EmployeeExampleRepository {
+
+    /**
+     * Upper bound on the probes evaluated by one statement, keeping it well below MySQL's placeholder limit.
+     */
+    static final int MAX_PROBES_PER_STATEMENT = 256;
+
+    private static final List<EmployeeAttribute> ALL_ATTRIBUTES = List.of(EmployeeAttribute.values());
+
+    private final EntityManager entityManager;
+    private final ExampleQueryCache queryCache;
+
+    EmployeeExampleRepositoryImpl(EntityManager entityManager, ExampleQueryCache queryCache) {
+        this.entityManager = entityManager;
+        this.queryCache = queryCache;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <S extends Employee> List<S> findAll(Example<S> example) {
+        NormalizedProbe probe = NormalizedProbe.of(example);
+        CompiledExampleQuery query = queryCache.get(probe.shape());
+        return (List<S>) cacheable(query.bind(entityManager.createQuery(query.selectJpql(), Employee.class), probe))
+                              .getResultList();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <S extends Employee> Optional<S> findOne(Example<S> example) {
+        NormalizedProbe probe = NormalizedProbe.of(example);
+        CompiledExampleQuery query = queryCache.get(probe.shape());
+        List<Employee> result = cacheable(query.bind(entityManager.createQuery(query.selectJpql(), Employee.class), probe))
+                                     .setMaxResults(2)
+                                     .getResultList();
+        if (result.size() > 1) {
+            throw new IncorrectResultSizeDataAccessException(1, result.size());
+        }
+        return result.stream()
+                     .map(employee -> (S) employee)
+                     .findFirst();
+    }
+
+    @Override
+    public <S extends Employee> long count(Example<S> example) {
+        NormalizedProbe probe = NormalizedProbe.of(example);
+        CompiledExampleQuery query = queryCache.get(probe.shape());
+        return cacheable(query.bind(entityManager.createQuery(query.countJpql(), Long.class), probe))
+                    .getSingleResult();
+    }
+
+    @Override
+    public <S extends Employee> boolean exists(Example<S> example) {
+        NormalizedProbe probe = NormalizedProbe.of(example);
+        CompiledExampleQuery query = queryCache.get(probe.shape());
+        return !cacheable(query.bind(entityManager.createQuery(query.existsJpql(), Long.class), probe))
+                     .setMaxResults(1)
+                     .getResultList()
+                     .isEmpty();
+    }
+
+    @Override
+    public List<List<Employee>> findAllForEach(List<Example<Employee>> examples) {
+        List<NormalizedProbe> probes = examples.stream()
+                                               .map(NormalizedProbe::of)
+                                               .toList();
+        Map<ProbeShape, List<Integer>> indexesByShape = new LinkedHashMap<>();
+        for (int i = 0; i < probes.size(); i++) {
+            indexesByShape.computeIfAbsent(probes.get(i)
+                                                 .shape(), shape -> new ArrayList<>())
+                          .add(i);
+        }
+
+        List<List<Employee>> results = new ArrayList<>(probes.size());
+        for (int i = 0; i < probes.size(); i++) {
+            results.add(new ArrayList<>());
+        }
+
+        for (Map.Entry<ProbeShape, List<Integer>> group : indexesByShape.entrySet()) {
+            CompiledExampleQuery query = queryCache.get(group.getKey());
+            List<Integer> indexes = group.getValue();
+            for (int from = 0; from < indexes.size(); from += MAX_PROBES_PER_STATEMENT) {
+                List<Integer> chunk = indexes.subList(from, Math.min(from + MAX_PROBES_PER_STATEMENT, indexes.size()));
+                List<NormalizedProbe> chunkProbes = padded(chunk.stream()
+                                                                .map(probes::get)
+                                                                .toList());
+                List<Object[]> rows = query.bind(entityManager.createQuery(query.batchSelectJpql(chunkProbes.size()), Object[].class), chunkProbes)
+                                           .getResultList();
+                for (Object[] row : rows) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        if (((Number) row[1 + i]).intValue() == 1) {
+                            results.get(chunk.get(i))
+                                   .add((Employee) row[0]);
+                        }
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public List<Employee> findWithin(Example<Employee> example, List<EmployeeRange> ranges, long afterId, int limit) {
+        NormalizedProbe probe = NormalizedProbe.of(example)
+                                               .withRanges(ranges);
+        CompiledExampleQuery query = queryCache.get(probe.shape());
+        return cacheable(query.bindAfterId(query.bind(entityManager.createQuery(query.keysetSelectJpql(), Employee.class), probe), afterId))
+                    .setMaxResults(limit)
+                    .getResultList();
+    }
+
+    @Override
+    public List<Map<String, Object>> findProjected(Example<Employee> example, List<EmployeeRange> ranges, List<String> properties, long afterId, int limit) {
+        List<EmployeeAttribute> attributes = new ArrayList<>();
+        attributes.add(EmployeeAttribute.ID);
+        for (String property : properties) {
+            EmployeeAttribute attribute = EmployeeAttribute.forProperty(property)
+                                                           .orElseThrow(() -> new IllegalArgumentException("Unknown employee property: " + property));
+            if (!attributes.contains(attribute)) {
+                attributes.add(attribute);
+            }
+        }
+
+        NormalizedProbe probe = NormalizedProbe.of(example)
+                                               .withRanges(ranges);
+        CompiledExampleQuery query = queryCache.get(probe.shape());
+        List<Tuple> rows = query.bindAfterId(query.bind(entityManager.createQuery(query.projectionJpql(attributes), Tuple.class), probe), afterId)
+                                .setMaxResults(limit)
+                                .getResultList();
+
+        List<Map<String, Object>> projected = new ArrayList<>(rows.size());
+        for (Tuple row : rows) {
+            Map<String, Object> values = new LinkedHashMap<>();
+            for (TupleElement<?> element : row.getElements()) {
+                values.put(element.getAlias(), row.get(element));
+            }
+            projected.add(values);
+        }
+        return projected;
+    }
+
+    @Override
+    public Stream<Object[]> streamValues(Example<Employee> example, int fetchSize) {
+        NormalizedProbe probe = NormalizedProbe.of(example);
+        CompiledExampleQuery query = queryCache.get(probe.shape());
+        return query.bindAfterId(query.bind(entityManager.createQuery(query.projectionJpql(ALL_ATTRIBUTES), Object[].class), probe), Long.MIN_VALUE)
+                    .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                    .setHint(HibernateHints.HINT_READ_ONLY, true)
+                    .getResultStream();
+    }
+
+    /**
+     * Repeats the last probe up to the next power of two, so a shape needs at most
+     * log2({@link #MAX_PROBES_PER_STATEMENT}) + 1 distinct statements in Hibernate's query plan cache.
+     */
+    private static List<NormalizedProbe> padded(List<NormalizedProbe> probes) {
+        int size = probes.size();
+        int paddedSize = size <= 1 ? size : Integer.highestOneBit(size - 1) << 1;
+        if (paddedSize == size) {
+            return probes;
+        }
+
+        List<NormalizedProbe> padded = new ArrayList<>(paddedSize);
+        padded.addAll(probes);
+        NormalizedProbe last = probes.get(size - 1);
+        while (padded.size() < paddedSize) {
+            padded.add(last);
+        }
+        return padded;
+    }
+
+    /**
+     * Marks a query as eligible for Hibernate's query cache; a no-op unless the query cache is enabled.
+     */
+    private static <T> TypedQuery<T> cacheable(TypedQuery<T> query) {
+        return query.setHint(HibernateHints.HINT_CACHEABLE, true)
+                    .setHint(HibernateHints.HINT_CACHE_REGION, Employee.QUERY_CACHE_REGION);
+    }
+
+}
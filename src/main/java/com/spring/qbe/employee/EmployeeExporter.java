@@ -0,0 +1,145 @@
+package com.spring.qbe.employee;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * Writes the matches of an example straight from the database cursor to an output stream, as CSV
+ * (readable by {@link EmployeeImporter}) or NDJSON. Rows are scalar values, never entities, so memory
+ * does not grow with the size of the export.
+ */
+@Component
+class EmployeeExporter {
+
+    private static final int FLUSH_INTERVAL = 500;
+    private static final EmployeeAttribute[] ATTRIBUTES = EmployeeAttribute.values();
+
+    private final EmployeeService employeeService;
+    private final ExportProperties properties;
+    private final ObjectMapper objectMapper;
+
+    EmployeeExporter(EmployeeService employeeService, ExportProperties properties, ObjectMapper objectMapper) {
+        this.employeeService = employeeService;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+    }
+
+    void export(Employee employee, Format format, OutputStream outputStream) throws IOException {
+        switch (format) {
+            case CSV -> exportCsv(employee, outputStream);
+            case NDJSON -> exportNdjson(employee, outputStream);
+        }
+    }
+
+    private void exportCsv(Employee employee, OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        for (int i = 0; i < ATTRIBUTES.length; i++) {
+            writer.write(i == 0 ? "" : ",");
+            writer.write(ATTRIBUTES[i].column());
+        }
+        writer.write('\n');
+
+        employeeService.exportEmployeesByExample(employee, properties.fetchSize(), flushing(writer::flush, row -> {
+            try {
+                for (int i = 0; i < row.length; i++) {
+                    if (i > 0) {
+                        writer.write(',');
+                    }
+                    if (row[i] != null) {
+                        writer.write(csvField(row[i].toString()));
+                    }
+                }
+                writer.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }));
+        writer.flush();
+    }
+
+    private void exportNdjson(Employee employee, OutputStream outputStream) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory()
+                                                   .createGenerator(outputStream)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            employeeService.exportEmployeesByExample(employee, properties.fetchSize(), flushing(generator::flush, row -> {
+                try {
+                    generator.writeStartObject();
+                    for (int i = 0; i < row.length; i++) {
+                        generator.writeObjectField(ATTRIBUTES[i].property(), row[i]);
+                    }
+                    generator.writeEndObject();
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+        }
+    }
+
+    private static Consumer<Object[]> flushing(Flushable flushable, Consumer<Object[]> writer) {
+        long[] written = new long[1];
+        return row -> {
+            writer.accept(row);
+            if (++written[0] % FLUSH_INTERVAL == 0) {
+                try {
+                    flushable.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+
+    /**
+     * Quotes values the reader would otherwise split or read as {@code null}: the empty string, and values with
+     * separators, quotes or line breaks. {@code null} is written as an empty field.
+     */
+    private static String csvField(String value) {
+        if (value.isEmpty()) {
+            return "\"\"";
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return '"' + value.replace("\"", "\"\"") + '"';
+            }
+        }
+        return value;
+    }
+
+    enum Format {
+
+        CSV(new MediaType("text", "csv", StandardCharsets.UTF_8)),
+        NDJSON(MediaType.APPLICATION_NDJSON);
+
+        private final MediaType mediaType;
+
+        Format(MediaType mediaType) {
+            this.mediaType = mediaType;
+        }
+
+        static Format forName(String name) {
+            return valueOf(name.toUpperCase(Locale.ROOT));
+        }
+
+        MediaType mediaType() {
+            return mediaType;
+        }
+
+    }
+
+}
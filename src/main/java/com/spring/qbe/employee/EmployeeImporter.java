@@ -0,0 +1,168 @@
+package com.spring.qbe.employee;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk loads employees from CSV or NDJSON with constant memory. Rows are read one at a time, given ids from
+ * the entity's pooled generator (one round trip per {@link Employee#ID_ALLOCATION_SIZE} rows, shared with
+ * regular JPA inserts so the two never collide) and written with one multi-row {@code INSERT} per
+ * {@link ImportProperties#batchSize()} rows, bypassing the persistence context entirely. With several
+ * {@link EmployeeShards shards} each batch is split into one statement per shard; ids still come from the
+ * generator of shard 0, whose range no other shard allocates from.
+ * <p>
+ * Each statement commits on its own; a failed import leaves the rows of earlier statements in place.
+ * Because rows are not written through Hibernate, completion is announced as an {@link EmployeeTableChangedEvent}.
+ */
+@Component
+public class EmployeeImporter {
+
+    private static final Logger log = LoggerFactory.getLogger(EmployeeImporter.class);
+
+    private static final String INSERT = "insert into employees (id, first_name, last_name, department, position, salary, "
+        + "first_name_folded, last_name_folded, department_folded, position_folded) values ";
+    private static final int COLUMNS = 10;
+    // MySQL's prepared statements are limited to 65535 placeholders.
+    private static final int MAX_BATCH_SIZE = 65_535 / COLUMNS;
+
+    private final ImportProperties properties;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SessionFactoryImplementor sessionFactory;
+    private final IdentifierGenerator idGenerator;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EmployeeShards shards;
+    private final String batchInsertSql;
+
+    public EmployeeImporter(ImportProperties properties, JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                            EntityManagerFactory entityManagerFactory, ObjectMapper objectMapper, ApplicationEventPublisher eventPublisher,
+                            EmployeeShards shards) {
+        if (properties.batchSize() < 1 || properties.batchSize() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("qbe.import.batch-size must be between 1 and " + MAX_BATCH_SIZE);
+        }
+        this.properties = properties;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        this.idGenerator = (IdentifierGenerator) sessionFactory.getMappingMetamodel()
+                                                               .getEntityDescriptor(Employee.class)
+                                                               .getGenerator();
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.shards = shards;
+        this.batchInsertSql = insertSql(properties.batchSize());
+    }
+
+    public ImportReport importCsv(InputStream input) {
+        try (EmployeeCsvReader rows = new EmployeeCsvReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            return importEmployees(rows, "CSV");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public ImportReport importNdjson(InputStream input) {
+        try (MappingIterator<Employee> rows = objectMapper.readerFor(Employee.class)
+                                                          .readValues(input)) {
+            return importEmployees(rows, "NDJSON");
+        } catch (RuntimeJsonMappingException e) {
+            throw new InvalidImportException("Invalid NDJSON employee: " + e.getOriginalMessage(), e);
+        } catch (IOException e) {
+            throw new InvalidImportException("Unreadable NDJSON input", e);
+        }
+    }
+
+    private ImportReport importEmployees(Iterator<Employee> rows, String format) {
+        long started = System.nanoTime();
+        long imported = 0;
+        long nextProgress = properties.progressInterval();
+        List<Employee> batch = new ArrayList<>(properties.batchSize());
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            while (rows.hasNext()) {
+                Employee employee = rows.next();
+                employee.setId((Long) idGenerator.generate((SharedSessionContractImplementor) session, employee));
+                batch.add(employee);
+                if (batch.size() == properties.batchSize()) {
+                    imported += insert(batch);
+                    batch.clear();
+                }
+                if (imported >= nextProgress) {
+                    log.info("{} import: {} employees, {} rows/s", format, imported, Math.round(ImportReport.of(imported, System.nanoTime() - started)
+                                                                                                               .rowsPerSecond()));
+                    nextProgress += properties.progressInterval();
+                }
+            }
+            imported += insert(batch);
+        } finally {
+            if (imported > 0) {
+                eventPublisher.publishEvent(new EmployeeTableChangedEvent(format + " import of " + imported + " employees"));
+            }
+        }
+
+        ImportReport report = ImportReport.of(imported, System.nanoTime() - started);
+        log.info("{} import finished: {} employees in {} ms, {} rows/s", format, report.rows(), report.elapsed()
+                                                                                                     .toMillis(), Math.round(report.rowsPerSecond()));
+        return report;
+    }
+
+    private int insert(List<Employee> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        Map<Integer, List<Employee>> byShard = batch.stream()
+                                                    .collect(Collectors.groupingBy(employee -> shards.shardOf(employee.getDepartment())));
+        byShard.forEach((shard, rows) -> shards.on(shard, () -> insertRows(rows)));
+        return batch.size();
+    }
+
+    private int insertRows(List<Employee> rows) {
+        String sql = rows.size() == properties.batchSize() ? batchInsertSql : insertSql(rows.size());
+        return transactionTemplate.execute(status -> jdbcTemplate.update(sql, statement -> {
+            int index = 1;
+            for (Employee employee : rows) {
+                statement.setLong(index++, employee.getId());
+                statement.setString(index++, employee.getFirstName());
+                statement.setString(index++, employee.getLastName());
+                statement.setString(index++, employee.getDepartment());
+                statement.setString(index++, employee.getPosition());
+                statement.setBigDecimal(index++, employee.getSalary());
+                statement.setString(index++, Employee.fold(employee.getFirstName()));
+                statement.setString(index++, Employee.fold(employee.getLastName()));
+                statement.setString(index++, Employee.fold(employee.getDepartment()));
+                statement.setString(index++, Employee.fold(employee.getPosition()));
+            }
+        }));
+    }
+
+    private static String insertSql(int rows) {
+        return INSERT + String.join(", ", Collections.nCopies(rows, "(" + String.join(", ", Collections.nCopies(COLUMNS, "?")) + ")"));
+    }
+
+}
@@ -0,0 +1,50 @@
+package com.spring.qbe.employee;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replaces Boot's JSON converter to record {@code qbe.employee.query.phase{phase=serialization}} for responses
+ * whose request went through {@link EmployeeQueryMetrics}, tagged with the same probe shape.
+ */
+@Component
+class EmployeeJsonMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    private final MeterRegistry meterRegistry;
+
+    EmployeeJsonMessageConverter(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        super(objectMapper);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException, HttpMessageNotWritableException {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        Object shape = attributes == null ? null : attributes.getAttribute(EmployeeQueryMetrics.SHAPE_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (shape == null) {
+            super.writeInternal(object, type, outputMessage);
+            return;
+        }
+
+        long started = System.nanoTime();
+        super.writeInternal(object, type, outputMessage);
+        Timer.builder("qbe.employee.query.phase")
+             .tag("method", "response")
+             .tag("shape", shape.toString())
+             .tag("phase", "serialization")
+             .register(meterRegistry)
+             .record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+    }
+
+}
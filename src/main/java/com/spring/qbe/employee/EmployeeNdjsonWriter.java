@@ -0,0 +1,72 @@
+package com.spring.qbe.employee;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * Writes employees as newline-delimited JSON, one object per line.
+ */
+@Component
+class EmployeeNdjsonWriter {
+
+    private static final int FLUSH_INTERVAL = 500;
+
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter employeeWriter;
+
+    EmployeeNdjsonWriter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.employeeWriter = objectMapper.writerFor(Employee.class)
+                                          .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    Session open(OutputStream outputStream) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory()
+                                              .createGenerator(outputStream);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+        return new Session(generator);
+    }
+
+    final class Session implements Consumer<Employee>, AutoCloseable {
+
+        private final JsonGenerator generator;
+        private long written;
+
+        private Session(JsonGenerator generator) {
+            this.generator = generator;
+        }
+
+        @Override
+        public void accept(Employee employee) {
+            try {
+                employeeWriter.writeValue(generator, employee);
+                generator.writeRaw('\n');
+                if (++written % FLUSH_INTERVAL == 0) {
+                    generator.flush();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        long written() {
+            return written;
+        }
+
+        @Override
+        public void close() throws IOException {
+            generator.close();
+        }
+
+    }
+
+}
@@ -0,0 +1,137 @@
+package com.spring.qbe.employee;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.data.domain.Example;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Per-probe-shape instrumentation of {@link EmployeeService}. Every call is tagged with the service method
+ * and the {@link ProbeShape#describe() shape} of its probe and records:
+ * <ul>
+ *     <li>{@code qbe.employee.query}: total latency, with a percentile histogram, tagged {@code outcome=success|error}
+ *     and the {@code exception} a failed call threw (e.g. {@code ProbeRejectedException}, {@code ProbeThrottledException});</li>
+ *     <li>{@code qbe.employee.query.phase}: the same time split into {@code phase=sql} (JDBC statement execution)
+ *     and {@code phase=hydration} (everything else: entity materialization, caches, bitmap evaluation);</li>
+ *     <li>{@code qbe.employee.query.rows}: rows returned;</li>
+ *     <li>{@code qbe.employee.query.l2cache}: Hibernate second-level and query cache lookups, tagged
+ *     {@code result=hit|miss}, so the hit ratio of each method can be read off while the cache is enabled.</li>
+ * </ul>
+ * MySQL does not report rows examined over JDBC, so scanned rows are left to the explain endpoint.
+ * The shape is also exposed to the response converter for {@code phase=serialization}.
+ */
+@Component
+class EmployeeQueryMetrics {
+
+    static final String SHAPE_ATTRIBUTE = EmployeeQueryMetrics.class.getName() + ".shape";
+    static final String BATCH_SHAPE = "batch";
+
+    private final MeterRegistry meterRegistry;
+
+    EmployeeQueryMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    <T> T record(String method, Example<Employee> example, Supplier<T> query) {
+        return record(method, example, query, null);
+    }
+
+    <T> T record(String method, Example<Employee> example, Supplier<T> query, ToIntFunction<? super T> rowCount) {
+        return record(method, example, List.of(), query, rowCount);
+    }
+
+    <T> T record(String method, Example<Employee> example, List<EmployeeRange> ranges, Supplier<T> query, ToIntFunction<? super T> rowCount) {
+        return record(method, shapeOf(example, ranges), query, rowCount);
+    }
+
+    <T> T record(String method, String shape, Supplier<T> query, ToIntFunction<? super T> rowCount) {
+        exposeShape(shape);
+
+        long sqlBefore = SqlTimingSessionListener.executionNanos();
+        long hitsBefore = SqlTimingSessionListener.cacheHits();
+        long missesBefore = SqlTimingSessionListener.cacheMisses();
+        long started = System.nanoTime();
+        T result = null;
+        Throwable failure = null;
+        try {
+            result = query.get();
+            return result;
+        } catch (RuntimeException | Error e) {
+            failure = e;
+            throw e;
+        } finally {
+            long total = System.nanoTime() - started;
+            long sql = SqlTimingSessionListener.executionNanos() - sqlBefore;
+            long hits = SqlTimingSessionListener.cacheHits() - hitsBefore;
+            long misses = SqlTimingSessionListener.cacheMisses() - missesBefore;
+
+            Timer.builder("qbe.employee.query")
+                 .tag("method", method)
+                 .tag("shape", shape)
+                 .tag("outcome", failure == null ? "success" : "error")
+                 .tag("exception", failure == null ? "none" : failure.getClass()
+                                                                   .getSimpleName())
+                 .publishPercentileHistogram()
+                 .register(meterRegistry)
+                 .record(total, TimeUnit.NANOSECONDS);
+            phase(method, shape, "sql").record(sql, TimeUnit.NANOSECONDS);
+            phase(method, shape, "hydration").record(Math.max(0, total - sql), TimeUnit.NANOSECONDS);
+            if (rowCount != null && failure == null) {
+                DistributionSummary.builder("qbe.employee.query.rows")
+                                   .tag("method", method)
+                                   .tag("shape", shape)
+                                   .register(meterRegistry)
+                                   .record(rowCount.applyAsInt(result));
+            }
+            if (hits > 0) {
+                cacheLookups(method, "hit").increment(hits);
+            }
+            if (misses > 0) {
+                cacheLookups(method, "miss").increment(misses);
+            }
+        }
+    }
+
+    private Counter cacheLookups(String method, String result) {
+        return Counter.builder("qbe.employee.query.l2cache")
+                      .tag("method", method)
+                      .tag("result", result)
+                      .register(meterRegistry);
+    }
+
+    private Timer phase(String method, String shape, String phase) {
+        return Timer.builder("qbe.employee.query.phase")
+                    .tag("method", method)
+                    .tag("shape", shape)
+                    .tag("phase", phase)
+                    .register(meterRegistry);
+    }
+
+    private static String shapeOf(Example<Employee> example, List<EmployeeRange> ranges) {
+        try {
+            return NormalizedProbe.of(example)
+                                  .withRanges(ranges)
+                                  .shape()
+                                  .describe();
+        } catch (UnsupportedOperationException e) {
+            return "unsupported";
+        }
+    }
+
+    private static void exposeShape(String shape) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.setAttribute(SHAPE_ATTRIBUTE, shape, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+}
@@ -0,0 +1,106 @@
+package com.spring.qbe.employee;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.data.domain.Example;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Asks the database how it would run a statement of a probe, once per {@link ProbeShape} and
+ * {@link ProbeStatement}: the plan of the first probe of a shape stands for all of them until
+ * {@link ProbePolicyProperties#planTtl()} has passed, so checking a probe usually costs one cache lookup.
+ * With several shards the plans of every shard the probe would query are combined.
+ * <p>
+ * A limited statement stops once enough rows match, so each access is expected to read about
+ * {@code limit / filtered} rows unless it has to sort first. Keyset pages are explained from their first page;
+ * one walking the primary key in id order is a scan like a full table access, bounded only by that estimate.
+ */
+@Component
+class EmployeeQueryPlanner {
+
+    private static final Set<String> FULL_SCAN_ACCESS_TYPES = Set.of("ALL", "index");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ExampleQueryCache queryCache;
+    private final EmployeeShards shards;
+    private final Cache<PlanKey, ProbePlan> plans;
+
+    EmployeeQueryPlanner(JdbcTemplate jdbcTemplate, ExampleQueryCache queryCache, EmployeeShards shards, ProbePolicyProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.queryCache = queryCache;
+        this.shards = shards;
+        this.plans = Caffeine.newBuilder()
+                             .maximumSize(ExampleQueryCache.MAX_SHAPES)
+                             .expireAfterWrite(properties.planTtl())
+                             .build();
+    }
+
+    ProbePlan plan(Example<Employee> example, List<EmployeeRange> ranges, ProbeStatement statement) {
+        NormalizedProbe probe = NormalizedProbe.of(example)
+                                               .withRanges(ranges);
+        return plans.get(new PlanKey(probe.shape(), statement), key -> explain(example, probe, statement));
+    }
+
+    private ProbePlan explain(Example<Employee> example, NormalizedProbe probe, ProbeStatement statement) {
+        CompiledExampleQuery query = queryCache.get(probe.shape());
+        String sql = switch (statement.kind()) {
+            case ALL -> query.selectSql();
+            case FIRST -> query.firstSql();
+            case PAGE -> query.keysetSelectSql();
+        };
+        List<Object> parameters = new ArrayList<>(Arrays.asList(query.parameters(probe)));
+        if (statement.kind() == ProbeStatement.Kind.PAGE) {
+            parameters.add(Long.MIN_VALUE);
+        }
+        if (statement.limited()) {
+            parameters.add(statement.limit());
+        }
+        List<Map<String, Object>> plan = shards.query(example, () -> jdbcTemplate.queryForList("explain " + sql, parameters.toArray()))
+                                               .stream()
+                                               .flatMap(List::stream)
+                                               .toList();
+
+        long estimatedRows = 0;
+        Set<String> indexes = new LinkedHashSet<>();
+        boolean fullScan = false;
+        for (Map<String, Object> access : plan) {
+            if (access.get("rows") instanceof Number rows) {
+                estimatedRows += statement.limited() ? rowsUntilLimit(access, rows.longValue(), statement.limit()) : rows.longValue();
+            }
+            if (access.get("key") instanceof String index) {
+                indexes.add(index);
+            }
+            fullScan |= FULL_SCAN_ACCESS_TYPES.contains(access.get("type"))
+                || (statement.kind() == ProbeStatement.Kind.PAGE && "range".equals(access.get("type")) && "PRIMARY".equals(access.get("key")));
+        }
+        return new ProbePlan(probe.shape()
+                                  .describe(), statement, sql, plan, estimatedRows, List.copyOf(indexes), fullScan);
+    }
+
+    /**
+     * Rows an access reads before {@code limit} of them pass its {@code filtered} percentage, or all of them when
+     * the rows are sorted before the limit applies.
+     */
+    private static long rowsUntilLimit(Map<String, Object> access, long rows, int limit) {
+        if (access.get("Extra") instanceof String extra && extra.contains("filesort")) {
+            return rows;
+        }
+        if (!(access.get("filtered") instanceof Number filtered) || filtered.doubleValue() <= 0) {
+            return rows;
+        }
+        return Math.min(rows, (long) Math.ceil(limit * 100 / filtered.doubleValue()));
+    }
+
+    private record PlanKey(ProbeShape shape, ProbeStatement statement) {
+
+    }
+
+}
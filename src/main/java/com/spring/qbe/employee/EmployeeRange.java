@@ -0,0 +1,62 @@
+package com.spring.qbe.employee;
+
+/**
+ * Inclusive bounds on a comparable {@link Employee} property, applied in addition to an example.
+ * Either bound may be {@code null}. Written as {@code property:min..max}, e.g. {@code salary:80000..100000}
+ * or {@code salary:..100000}.
+ */
+public record EmployeeRange(String property, Object min, Object max) {
+
+    private static final String SEPARATOR = "..";
+
+    public EmployeeRange {
+        EmployeeAttribute attribute = attributeOf(property);
+        if (min == null && max == null) {
+            throw new InvalidRangeException("Range on " + property + " has neither a minimum nor a maximum");
+        }
+        if (min != null && !attribute.type()
+                                     .isInstance(min) || max != null && !attribute.type()
+                                                                                  .isInstance(max)) {
+            throw new InvalidRangeException("Bounds of " + property + " must be of type " + attribute.type()
+                                                                                                   .getSimpleName());
+        }
+    }
+
+    static EmployeeRange parse(String range) {
+        int colon = range.indexOf(':');
+        int separator = range.indexOf(SEPARATOR, colon + 1);
+        if (colon < 0 || separator < 0) {
+            throw new InvalidRangeException("Malformed range, expected property:min..max: " + range);
+        }
+
+        String property = range.substring(0, colon);
+        EmployeeAttribute attribute = attributeOf(property);
+        return new EmployeeRange(property, bound(attribute, range.substring(colon + 1, separator)),
+            bound(attribute, range.substring(separator + SEPARATOR.length())));
+    }
+
+    EmployeeAttribute attribute() {
+        return attributeOf(property);
+    }
+
+    private static EmployeeAttribute attributeOf(String property) {
+        EmployeeAttribute attribute = EmployeeAttribute.forProperty(property)
+                                                       .orElseThrow(() -> new InvalidRangeException("Unknown employee field: " + property));
+        if (attribute.isString()) {
+            throw new InvalidRangeException("Ranges are only supported on numeric fields, not " + property);
+        }
+        return attribute;
+    }
+
+    private static Object bound(EmployeeAttribute attribute, String value) {
+        if (value.isBlank()) {
+            return null;
+        }
+        try {
+            return attribute.parse(value.strip());
+        } catch (NumberFormatException e) {
+            throw new InvalidRangeException("Invalid bound for " + attribute.property() + ": " + value, e);
+        }
+    }
+
+}
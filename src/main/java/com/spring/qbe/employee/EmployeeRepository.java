@@ -1,8 +1,19 @@
 package com.spring.qbe.employee;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.QueryByExampleExecutor;
 
-public interface EmployeeRepository extends JpaRepository<Employee, Long>, QueryByExampleExecutor<Employee> {
+import java.util.stream.Stream;
+
+public interface EmployeeRepository extends JpaRepository<Employee, Long>, QueryByExampleExecutor<Employee>,
+    EmployeeExampleRepository, EmployeeStreamRepository {
+
+    /**
+     * Every employee as {@code [id, department, position, salary]}. The stream must be consumed and closed
+     * inside a transaction.
+     */
+    @Query("select e.id, e.department, e.position, e.salary from employees e")
+    Stream<Object[]> streamSalaryRows();
 
 }
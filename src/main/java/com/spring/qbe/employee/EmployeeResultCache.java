@@ -0,0 +1,169 @@
+package com.spring.qbe.employee;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.spring.qbe.config.ReadRouting;
+import com.spring.qbe.config.ReplicaRoutingProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Window;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of {@link EmployeeService} read results keyed by the normalized probe.
+ * A committed write invalidates exactly the entries whose probe matches the row before or after the write;
+ * loads that overlap a write are returned but not cached, so a stale result can never be stored.
+ * <p>
+ * Misses, and every read while the cache is disabled, are coalesced: concurrent callers with the same probe
+ * and arguments share one query. A committed write detaches the queries in flight before it is visible to
+ * callers, so nobody who starts reading after a write is handed a result read before it.
+ * <p>
+ * Reads that must see the primary ({@link ReadRouting#requiresPrimary()}: sticky after the client's own write,
+ * or pinned) bypass both, since cached and shared results may come from a replica. With replicas enabled
+ * results are only coalesced, never cached: a replica may not have applied a write this node committed
+ * just before the load started, which the write epoch cannot tell, and an entry would outlive its lag.
+ * <p>
+ * An entry keeps the {@link AnswerVersions} its result was labeled with when it was read, and labels every
+ * answer served from it the same way.
+ * <p>
+ * Only writes made through this node invalidate entries; other nodes' writes stay invisible until
+ * {@link ResultCacheProperties#timeToLive()} has passed, which is why the cache is off by default.
+ */
+@Component
+class EmployeeResultCache implements MeterBinder {
+
+    private final boolean enabled;
+    private final Cache<Key, AnswerVersions.Versioned<?>> cache;
+    private final AtomicLong writeEpoch = new AtomicLong();
+    private final SingleFlight<Key> flights = new SingleFlight<>();
+
+    EmployeeResultCache(ResultCacheProperties properties, ReplicaRoutingProperties replicaProperties) {
+        this.enabled = properties.enabled() && !replicaProperties.enabled();
+        this.cache = Caffeine.newBuilder()
+                             .maximumSize(properties.maximumSize())
+                             .expireAfterWrite(properties.timeToLive())
+                             .recordStats()
+                             .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> T get(String operation, Example<Employee> example, Supplier<T> loader, Object... arguments) {
+        if (ReadRouting.requiresPrimary()) {
+            return loader.get();
+        }
+
+        Key key = new Key(operation, NormalizedProbe.of(example), List.of(arguments));
+        if (!enabled) {
+            return (T) served(flights.load(key, () -> AnswerVersions.collect(loader)));
+        }
+
+        AnswerVersions.Versioned<?> cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return (T) served(cached);
+        }
+
+        long epoch = writeEpoch.get();
+        AnswerVersions.Versioned<?> read = flights.load(key, () -> AnswerVersions.collect(loader));
+        AnswerVersions.Versioned<?> loaded = new AnswerVersions.Versioned<>(copy(read.value()), read.versions());
+        if (loaded.value() != null && writeEpoch.get() == epoch) {
+            cache.put(key, loaded);
+            // A write may have been applied between the check and the put, its invalidation missing the entry.
+            if (writeEpoch.get() != epoch) {
+                cache.asMap()
+                     .remove(key, loaded);
+            }
+        }
+        return (T) served(loaded);
+    }
+
+    @Order(EmployeeTableVersion.APPLY_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    void onEmployeeChanged(EmployeeChangedEvent event) {
+        flights.detachAll();
+        writeEpoch.incrementAndGet();
+        cache.asMap()
+             .keySet()
+             .removeIf(key -> key.isAffectedBy(event));
+    }
+
+    @Order(EmployeeTableVersion.APPLY_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    void onEmployeeTableChanged(EmployeeTableChangedEvent event) {
+        flights.detachAll();
+        writeEpoch.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    CacheStats stats() {
+        return cache.stats();
+    }
+
+    long coalescedLoads() {
+        return flights.joined();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "employee-results");
+        FunctionCounter.builder("qbe.employee.query.coalesced", flights, SingleFlight::joined)
+                       .description("Reads served by an identical query already in flight instead of their own")
+                       .register(registry);
+        FunctionCounter.builder("qbe.employee.query.loads", flights, SingleFlight::loads)
+                       .description("Reads that missed the result cache and ran their own query")
+                       .register(registry);
+    }
+
+    private static Object served(AnswerVersions.Versioned<?> answer) {
+        AnswerVersions.report(answer.versions());
+        return copy(answer.value());
+    }
+
+    /**
+     * Results hold mutable entities and may be shared by coalesced callers, so the cache keeps copies of its own
+     * and hands every caller fresh ones; lists come back unmodifiable.
+     */
+    private static Object copy(Object result) {
+        return switch (result) {
+            case null -> null;
+            case Employee employee -> Employee.builder()
+                                              .id(employee.getId())
+                                              .firstName(employee.getFirstName())
+                                              .lastName(employee.getLastName())
+                                              .department(employee.getDepartment())
+                                              .position(employee.getPosition())
+                                              .salary(employee.getSalary())
+                                              .build();
+            case Optional<?> optional -> optional.map(EmployeeResultCache::copy);
+            case List<?> list -> list.stream()
+                                     .map(EmployeeResultCache::copy)
+                                     .toList();
+            case Map<?, ?> row -> Collections.unmodifiableMap(new LinkedHashMap<>(row));
+            case Window<?> window -> Window.from((List<?>) copy(window.getContent()), window::positionAt, window.hasNext());
+            default -> result;
+        };
+    }
+
+    private record Key(String operation, NormalizedProbe probe, List<Object> arguments) {
+
+        boolean isAffectedBy(EmployeeChangedEvent event) {
+            return (event.before() != null && probe.matches(event.before()))
+                || (event.after() != null && probe.matches(event.after()));
+        }
+
+    }
+
+}
@@ -0,0 +1,47 @@
+package com.spring.qbe.employee;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.data.domain.Example;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Loads {@link ImportProperties#seed()} into an empty {@code employees} table at startup, through the same
+ * path as bulk imports. Runs before {@code ApplicationReadyEvent}, so startup loaders see the seeded rows.
+ */
+@Component
+class EmployeeSeeder implements ApplicationRunner {
+
+    private final ImportProperties properties;
+    private final ResourceLoader resourceLoader;
+    private final EmployeeRepository employeeRepository;
+    private final EmployeeShards shards;
+    private final EmployeeImporter importer;
+
+    EmployeeSeeder(ImportProperties properties, ResourceLoader resourceLoader, EmployeeRepository employeeRepository,
+                   EmployeeShards shards, EmployeeImporter importer) {
+        this.properties = properties;
+        this.resourceLoader = resourceLoader;
+        this.employeeRepository = employeeRepository;
+        this.shards = shards;
+        this.importer = importer;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        if (properties.seed()
+                      .isBlank() || shards.any(Example.of(new Employee()), () -> employeeRepository.count() > 0)) {
+            return;
+        }
+
+        try (InputStream input = resourceLoader.getResource(properties.seed())
+                                               .getInputStream()) {
+            importer.importCsv(input);
+        }
+    }
+
+}
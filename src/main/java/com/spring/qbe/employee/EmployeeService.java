@@ -1,32 +1,305 @@
 package com.spring.qbe.employee;
 
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
 import org.springframework.data.domain.Example;
 import org.springframework.data.domain.ExampleMatcher;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 @Service
 public class EmployeeService {
 
     private final EmployeeRepository employeeRepository;
+    private final EmployeeResultCache resultCache;
+    private final EmployeeBitmapIndex bitmapIndex;
+    private final EmployeeQueryMetrics queryMetrics;
+    private final EmployeeShards shards;
+    private final ProbePolicy probePolicy;
+    private final EmployeeTableVersion tableVersion;
 
-    public EmployeeService(EmployeeRepository employeeRepository) {
+    public EmployeeService(EmployeeRepository employeeRepository, EmployeeResultCache resultCache,
+                           EmployeeBitmapIndex bitmapIndex, EmployeeQueryMetrics queryMetrics, EmployeeShards shards,
+                           ProbePolicy probePolicy, EmployeeTableVersion tableVersion) {
         this.employeeRepository = employeeRepository;
+        this.resultCache = resultCache;
+        this.bitmapIndex = bitmapIndex;
+        this.queryMetrics = queryMetrics;
+        this.shards = shards;
+        this.probePolicy = probePolicy;
+        this.tableVersion = tableVersion;
     }
 
     public List<Employee> findEmployeesByExample(Employee employee) {
         Example<Employee> example = Example.of(employee);
-        return employeeRepository.findAll(example);
+        return queryMetrics.record("findAll", example, () -> bitmapIndex.select(example)
+                                                                        .map(EmployeeBitmapIndex.Selection::employees)
+                                                                        .orElseGet(() -> resultCache.get("findAll", example, () -> findAll(example))),
+                                   List::size);
+    }
+
+    /**
+     * Keyset variant of {@link #findEmployeesByExample(Employee)}: returns at most {@code limit} rows
+     * with {@code id} greater than the given position, so the cost of a page does not depend on its depth.
+     */
+    public Window<Employee> findEmployeesByExample(Employee employee, ScrollPosition position, int limit) {
+        Example<Employee> example = Example.of(employee);
+        return queryMetrics.record("scroll", example, () -> bitmapIndex.select(example)
+                                                                       .map(selection -> keysetWindow(selection, position, limit))
+                                                                       .orElseGet(() -> resultCache.get("scroll", example, () -> scroll(example, position, limit), position, limit)),
+                                   Window::size);
+    }
+
+    /**
+     * Variant of {@link #findEmployeesByExample(Employee, ScrollPosition, int)} that also restricts matches to
+     * {@code ranges}, evaluated in SQL next to the example, e.g. engineers earning between 80k and 100k.
+     */
+    public Window<Employee> findEmployeesByExample(Employee employee, List<EmployeeRange> ranges, ScrollPosition position, int limit) {
+        Example<Employee> example = Example.of(employee);
+        return queryMetrics.record("scroll", example, ranges, () -> resultCache.get("within", example, () -> within(example, ranges, position, limit), ranges, position, limit),
+                                   Window::size);
+    }
+
+    /**
+     * Projected variant of {@link #findEmployeesByExample(Employee, List, ScrollPosition, int)}: selects only
+     * {@code id} and the requested fields in SQL and returns them as plain values instead of entities.
+     */
+    public Window<Map<String, Object>> findEmployeesByExample(Employee employee, List<String> fields, List<EmployeeRange> ranges,
+                                                              ScrollPosition position, int limit) {
+        for (String field : fields) {
+            if (EmployeeAttribute.forProperty(field)
+                                 .isEmpty()) {
+                throw new InvalidProjectionException("Unknown employee field: " + field);
+            }
+        }
+
+        Example<Employee> example = Example.of(employee);
+        return queryMetrics.record("project", example, ranges, () -> resultCache.get("project", example, () -> project(example, fields, ranges, position, limit), fields, ranges, position, limit),
+                                   Window::size);
+    }
+
+    /**
+     * Hands every match to {@code consumer} as it is read from the database cursor,
+     * without materializing the result.
+     */
+    @Transactional(readOnly = true)
+    public void streamEmployeesByExample(Employee employee, Consumer<Employee> consumer) {
+        Example<Employee> example = Example.of(employee);
+        long[] rows = new long[1];
+        queryMetrics.record("stream", example, () -> probePolicy.guard(example, List.of(), ProbeStatement.ALL, () -> {
+            try (Stream<Employee> employees = shards.stream(example, () -> employeeRepository.streamAll(example))) {
+                employees.forEach(row -> {
+                    rows[0]++;
+                    consumer.accept(row);
+                });
+            }
+            return rows;
+        }), streamed -> (int) streamed[0]);
+    }
+
+    /**
+     * Hands the attribute values of every match, in {@link EmployeeAttribute} order, to {@code consumer} as they
+     * are read from a forward-only cursor. Unlike {@link #streamEmployeesByExample} no entities are created.
+     */
+    @Transactional(readOnly = true)
+    public void exportEmployeesByExample(Employee employee, int fetchSize, Consumer<Object[]> consumer) {
+        Example<Employee> example = Example.of(employee);
+        long[] rows = new long[1];
+        queryMetrics.record("export", example, () -> probePolicy.guard(example, List.of(), ProbeStatement.ALL, () -> {
+            try (Stream<Object[]> values = shards.stream(example, () -> employeeRepository.streamValues(example, fetchSize))) {
+                values.forEach(row -> {
+                    rows[0]++;
+                    consumer.accept(row);
+                });
+            }
+            return rows;
+        }), exported -> (int) exported[0]);
     }
 
     public Optional<Employee> findOneEmployeeByExample(Employee employee) {
         Example<Employee> example = Example.of(employee);
-        return employeeRepository.findOne(example);
+        return queryMetrics.record("findOne", example, () -> bitmapIndex.select(example)
+                                                                        .map(EmployeeBitmapIndex.Selection::one)
+                                                                        .orElseGet(() -> resultCache.get("findOne", example, () -> findOne(example))),
+                                   found -> found.isPresent() ? 1 : 0);
+    }
+
+    /**
+     * Evaluates a batch of exact-match probes with one query per probe shape. The result holds the matches
+     * of each probe in the order the probes were given.
+     */
+    public List<List<Employee>> findEmployeesByExamples(List<Employee> employees) {
+        List<Example<Employee>> examples = employees.stream()
+                                                    .map(Example::of)
+                                                    .toList();
+        return queryMetrics.record("findAllForEach", EmployeeQueryMetrics.BATCH_SHAPE, () -> findAllForEach(examples),
+                                   results -> results.stream()
+                                                     .mapToInt(List::size)
+                                                     .sum());
     }
 
     public List<Employee> findEmployeesWithCustomMatcher(String firstName, String department) {
+        Example<Employee> example = customMatcherExample(firstName, department);
+        return queryMetrics.record("findAll", example, () -> bitmapIndex.select(example)
+                                                                        .map(EmployeeBitmapIndex.Selection::employees)
+                                                                        .orElseGet(() -> resultCache.get("findAll", example, () -> findAll(example))),
+                                   List::size);
+    }
+
+    public Window<Employee> findEmployeesWithCustomMatcher(String firstName, String department, ScrollPosition position, int limit) {
+        Example<Employee> example = customMatcherExample(firstName, department);
+        return queryMetrics.record("scroll", example, () -> bitmapIndex.select(example)
+                                                                       .map(selection -> keysetWindow(selection, position, limit))
+                                                                       .orElseGet(() -> resultCache.get("scroll", example, () -> scroll(example, position, limit), position, limit)),
+                                   Window::size);
+    }
+
+    public long countEmployeesByExample(Employee employee) {
+        Example<Employee> example = Example.of(employee);
+        return queryMetrics.record("count", example, () -> bitmapIndex.select(example)
+                                                                      .map(EmployeeBitmapIndex.Selection::count)
+                                                                      .orElseGet(() -> resultCache.get("count", example, () -> count(example))));
+    }
+
+    public boolean existsByExample(Employee employee) {
+        Example<Employee> example = Example.of(employee);
+        return queryMetrics.record("exists", example, () -> bitmapIndex.select(example)
+                                                                       .map(EmployeeBitmapIndex.Selection::exists)
+                                                                       .orElseGet(() -> resultCache.get("exists", example, () -> exists(example))));
+    }
+
+    /**
+     * How the database would run the first page of {@code limit} rows of
+     * {@link #findEmployeesByExample(Employee, List, ScrollPosition, int)} for this probe: the keyset SQL, its
+     * plan, estimated rows and indexes. Plans are cached per probe shape and page size.
+     */
+    public ProbePlan explainEmployeesByExample(Employee employee, List<EmployeeRange> ranges, int limit) {
+        return probePolicy.plan(Example.of(employee), ranges, ProbeStatement.page(limit + 1));
+    }
+
+    /**
+     * Like {@link #explainEmployeesByExample}, for {@link #findEmployeesWithCustomMatcher(String, String, ScrollPosition, int)}.
+     */
+    public ProbePlan explainEmployeesWithCustomMatcher(String firstName, String department, int limit) {
+        return probePolicy.plan(customMatcherExample(firstName, department), List.of(), ProbeStatement.page(limit + 1));
+    }
+
+    private List<Employee> findAll(Example<Employee> example) {
+        return tableVersion.read(() -> probePolicy.guard(example, List.of(), ProbeStatement.ALL, () -> mergedById(shards.query(example, () -> employeeRepository.findAll(example)), Employee::getId)));
+    }
+
+    private Optional<Employee> findOne(Example<Employee> example) {
+        List<Employee> found = tableVersion.read(() -> probePolicy.guard(example, List.of(), ProbeStatement.first(2), () -> shards.query(example, () -> employeeRepository.findOne(example))))
+                                          .stream()
+                                          .flatMap(Optional::stream)
+                                          .toList();
+        if (found.size() > 1) {
+            throw new IncorrectResultSizeDataAccessException(1, found.size());
+        }
+        return found.stream()
+                    .findFirst();
+    }
+
+    private long count(Example<Employee> example) {
+        return tableVersion.read(() -> probePolicy.guard(example, List.of(), ProbeStatement.ALL, () -> shards.query(example, () -> employeeRepository.count(example))))
+                          .stream()
+                          .mapToLong(Long::longValue)
+                          .sum();
+    }
+
+    private boolean exists(Example<Employee> example) {
+        return tableVersion.read(() -> probePolicy.guard(example, List.of(), ProbeStatement.first(1), () -> shards.any(example, () -> employeeRepository.exists(example))));
+    }
+
+    private List<List<Employee>> findAllForEach(List<Example<Employee>> examples) {
+        List<List<List<Employee>>> perShard = shards.all(() -> employeeRepository.findAllForEach(examples));
+        if (perShard.size() == 1) {
+            return perShard.getFirst();
+        }
+
+        List<List<Employee>> merged = new ArrayList<>(examples.size());
+        for (int probe = 0; probe < examples.size(); probe++) {
+            int index = probe;
+            merged.add(mergedById(perShard.stream()
+                                          .map(results -> results.get(index))
+                                          .toList(), Employee::getId));
+        }
+        return merged;
+    }
+
+    private Window<Employee> scroll(Example<Employee> example, ScrollPosition position, int limit) {
+        return within(example, List.of(), position, limit);
+    }
+
+    private Window<Employee> within(Example<Employee> example, List<EmployeeRange> ranges, ScrollPosition position, int limit) {
+        List<Employee> rows = tableVersion.read(() -> probePolicy.guard(example, ranges, ProbeStatement.page(limit + 1), () -> firstById(
+            shards.query(example, () -> employeeRepository.findWithin(example, ranges, lastId(position), limit + 1)), Employee::getId, limit + 1)));
+        boolean hasNext = rows.size() > limit;
+        List<Employee> content = hasNext ? new ArrayList<>(rows.subList(0, limit)) : rows;
+        return Window.from(content, index -> ScrollPosition.forward(Map.of("id", content.get(index)
+                                                                                       .getId())), hasNext);
+    }
+
+    private Window<Map<String, Object>> project(Example<Employee> example, List<String> fields, List<EmployeeRange> ranges, ScrollPosition position, int limit) {
+        List<Map<String, Object>> rows = tableVersion.read(() -> probePolicy.guard(example, ranges, ProbeStatement.page(limit + 1), () -> firstById(
+            shards.query(example, () -> employeeRepository.findProjected(example, ranges, fields, lastId(position), limit + 1)),
+            row -> ((Number) row.get("id")).longValue(), limit + 1)));
+        boolean hasNext = rows.size() > limit;
+        List<Map<String, Object>> content = hasNext ? new ArrayList<>(rows.subList(0, limit)) : rows;
+        return Window.from(content, index -> ScrollPosition.forward(Map.of("id", content.get(index)
+                                                                                       .get("id"))), hasNext);
+    }
+
+    private static Window<Employee> keysetWindow(EmployeeBitmapIndex.Selection selection, ScrollPosition position, int limit) {
+        List<Employee> rows = selection.page(lastId(position), limit + 1);
+        boolean hasNext = rows.size() > limit;
+        List<Employee> content = hasNext ? rows.subList(0, limit) : rows;
+        return Window.from(content, index -> ScrollPosition.forward(Map.of("id", content.get(index)
+                                                                                       .getId())), hasNext);
+    }
+
+    /**
+     * Concatenates the rows read from each shard in id order; a single shard's rows are returned as they are.
+     */
+    private static <T> List<T> mergedById(List<List<T>> perShard, Function<T, Long> id) {
+        if (perShard.size() == 1) {
+            return perShard.getFirst();
+        }
+        return perShard.stream()
+                       .flatMap(List::stream)
+                       .sorted(Comparator.comparing(id))
+                       .toList();
+    }
+
+    /**
+     * The first {@code limit} rows by id among per-shard keyset pages, each already in id order and holding
+     * at most {@code limit} rows, so the merged page is exactly the one a single database would return.
+     */
+    private static <T> List<T> firstById(List<List<T>> perShard, Function<T, Long> id, int limit) {
+        List<T> merged = mergedById(perShard, id);
+        return merged.size() > limit ? merged.subList(0, limit) : merged;
+    }
+
+    private static long lastId(ScrollPosition position) {
+        if (position instanceof KeysetScrollPosition keyset && keyset.getKeys()
+                                                                     .get("id") instanceof Number id) {
+            return id.longValue();
+        }
+        return Long.MIN_VALUE;
+    }
+
+    private static Example<Employee> customMatcherExample(String firstName, String department) {
         Employee employee = Employee.builder()
                                     .firstName(firstName)
                                     .department(department)
@@ -37,18 +310,7 @@ public class EmployeeService {
                                                .withStringMatcher(ExampleMatcher.StringMatcher.EXACT)
                                                .withMatcher("department", ExampleMatcher.GenericPropertyMatcher::contains);
 
-        Example<Employee> example = Example.of(employee, matcher);
-        return employeeRepository.findAll(example);
-    }
-
-    public long countEmployeesByExample(Employee employee) {
-        Example<Employee> example = Example.of(employee);
-        return employeeRepository.count(example);
-    }
-
-    public boolean existsByExample(Employee employee) {
-        Example<Employee> example = Example.of(employee);
-        return employeeRepository.exists(example);
+        return Example.of(employee, matcher);
     }
 
 }
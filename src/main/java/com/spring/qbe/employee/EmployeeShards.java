@@ -0,0 +1,273 @@
+package com.spring.qbe.employee;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.spring.qbe.config.ShardContext;
+import com.spring.qbe.config.ShardingProperties;
+import org.springframework.data.domain.Example;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Places {@code employees} rows on the shards of {@link ShardingProperties} by the hash of their department's
+ * sort key under MySQL's collation, and runs repository calls where the matching rows live:
+ * on one shard when the probe pins the department, otherwise on every shard at once. Callers merge the
+ * per-shard results. With a single shard every call runs inline on the caller's thread; otherwise the SQL time
+ * and cache lookups of the shard queries are carried back to it, so {@link EmployeeQueryMetrics} sees them.
+ * <p>
+ * A shard is picked when a connection is acquired, so calls must not join a transaction that already
+ * holds one.
+ */
+@Component
+class EmployeeShards implements AutoCloseable {
+
+    /**
+     * The primary-level sort key of a string under the column's collation: strings MySQL considers equal have
+     * equal keys, whatever their case, accents or expansions ({@code ß = ss}, {@code æ = ae}).
+     */
+    private static final String SORT_KEY_SQL = "select weight_string(convert(? using utf8mb4) collate utf8mb4_0900_ai_ci)";
+    private static final int PLACEMENT_CACHE_SIZE = 10_000;
+
+    private final int count;
+    private final ExecutorService executor;
+    private final PlatformTransactionManager transactionManager;
+    private final TransactionDefinition readOnlyNewTransaction;
+    private final JdbcTemplate jdbcTemplate;
+    private final Cache<String, Integer> shardByDepartment = Caffeine.newBuilder()
+                                                                     .maximumSize(PLACEMENT_CACHE_SIZE)
+                                                                     .build();
+
+    EmployeeShards(ShardingProperties properties, PlatformTransactionManager transactionManager, JdbcTemplate jdbcTemplate) {
+        this.count = properties.count();
+        this.executor = count > 1 ? Executors.newFixedThreadPool(properties.threads(), Thread.ofPlatform()
+                                                                                             .name("employee-shard-", 0)
+                                                                                             .daemon()
+                                                                                             .factory()) : null;
+        this.transactionManager = transactionManager;
+        DefaultTransactionDefinition definition = new DefaultTransactionDefinition(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        definition.setReadOnly(true);
+        this.readOnlyNewTransaction = definition;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    int count() {
+        return count;
+    }
+
+    /**
+     * The shard holding employees of {@code department}; employees without one live on shard 0. Departments the
+     * collation considers equal share a shard, which hashing their {@link NormalizedProbe#fold fold} would only
+     * guarantee for ASCII, so the key comes from the database, once per department.
+     */
+    int shardOf(String department) {
+        if (count == 1 || department == null) {
+            return 0;
+        }
+        return shardByDepartment.get(department, this::placementOf);
+    }
+
+    /**
+     * Asks shard 0 for the sort key in a transaction of its own, which leaves a transaction of the caller that
+     * has not picked its shard yet untouched.
+     */
+    private int placementOf(String department) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager, readOnlyNewTransaction);
+        byte[] sortKey = ShardContext.on(0, () -> transaction.execute(status -> jdbcTemplate.queryForObject(SORT_KEY_SQL, byte[].class, department)));
+        return Math.floorMod(Arrays.hashCode(sortKey), count);
+    }
+
+    /**
+     * The only shard that can hold matches of {@code example}, if it requires the department to equal a value
+     * (as MySQL's collation compares it) or to be null. A folded probe value is equal to its original under the
+     * collation, so it has the same shard.
+     */
+    OptionalInt shardOf(Example<Employee> example) {
+        if (count == 1) {
+            return OptionalInt.of(0);
+        }
+
+        NormalizedProbe probe = NormalizedProbe.of(example);
+        List<ProbeShape.Condition> conditions = probe.shape()
+                                                     .conditions();
+        if (!probe.shape()
+                  .allMatching() && conditions.size() != 1) {
+            return OptionalInt.empty();
+        }
+        for (int i = 0; i < conditions.size(); i++) {
+            ProbeShape.Condition condition = conditions.get(i);
+            if (condition.attribute() == EmployeeAttribute.DEPARTMENT
+                && (condition.comparison() == ProbeShape.Comparison.EQUALS || condition.comparison() == ProbeShape.Comparison.IS_NULL)) {
+                return OptionalInt.of(shardOf((String) probe.values()
+                                                            .get(i)));
+            }
+        }
+        return OptionalInt.empty();
+    }
+
+    /**
+     * Runs {@code work} against {@code shard}, e.g. to save an employee on the shard of its department.
+     */
+    <T> T on(int shard, Supplier<T> work) {
+        return count == 1 ? work.get() : ShardContext.on(shard, work);
+    }
+
+    /**
+     * Results of {@code query} on every shard that can hold matches of {@code example}, in shard order.
+     */
+    <T> List<T> query(Example<Employee> example, Supplier<T> query) {
+        OptionalInt shard = shardOf(example);
+        return shard.isPresent() ? List.of(on(shard.getAsInt(), query)) : all(query);
+    }
+
+    /**
+     * Results of {@code query} on every shard, in shard order. The shards are queried in parallel.
+     */
+    <T> List<T> all(Supplier<T> query) {
+        if (count == 1) {
+            return List.of(query.get());
+        }
+
+        Queue<SqlTimingSessionListener.Totals> spent = new ConcurrentLinkedQueue<>();
+        List<CompletableFuture<T>> results = IntStream.range(0, count)
+                                                      .mapToObj(shard -> submit(shard, query, spent))
+                                                      .toList();
+        try {
+            List<T> merged = new ArrayList<>(count);
+            for (CompletableFuture<T> result : results) {
+                merged.add(await(result));
+            }
+            return merged;
+        } finally {
+            addToCurrentThread(spent);
+        }
+    }
+
+    /**
+     * Whether {@code query} holds on any shard that can hold matches of {@code example}. Returns as soon as
+     * one shard answers {@code true}; the others are left to finish in the background.
+     */
+    boolean any(Example<Employee> example, BooleanSupplier query) {
+        OptionalInt shard = shardOf(example);
+        if (shard.isPresent()) {
+            return on(shard.getAsInt(), query::getAsBoolean);
+        }
+
+        Queue<SqlTimingSessionListener.Totals> spent = new ConcurrentLinkedQueue<>();
+        CompletableFuture<Boolean> found = new CompletableFuture<>();
+        CompletableFuture<?>[] results = IntStream.range(0, count)
+                                                  .mapToObj(index -> submit(index, query::getAsBoolean, spent)
+                                                                     .thenAccept(hit -> {
+                                                                         if (hit) {
+                                                                             found.complete(true);
+                                                                         }
+                                                                     }))
+                                                  .toArray(CompletableFuture<?>[]::new);
+        CompletableFuture.allOf(results)
+                         .whenComplete((done, failure) -> {
+                             if (failure != null) {
+                                 found.completeExceptionally(failure);
+                             } else {
+                                 found.complete(false);
+                             }
+                         });
+        try {
+            return await(found);
+        } finally {
+            addToCurrentThread(spent);
+        }
+    }
+
+    /**
+     * The streams {@code query} opens on every shard that can hold matches of {@code example}, one shard after
+     * the other. With several shards each one is read in its own read-only transaction, which stays open until
+     * that shard's rows are consumed.
+     */
+    <T> Stream<T> stream(Example<Employee> example, Supplier<Stream<T>> query) {
+        if (count == 1) {
+            return query.get();
+        }
+        OptionalInt shard = shardOf(example);
+        IntStream shards = shard.isPresent() ? IntStream.of(shard.getAsInt()) : IntStream.range(0, count);
+        return shards.boxed()
+                     .flatMap(index -> streamOn(index, query));
+    }
+
+    /**
+     * Runs {@code query} on {@code shard} on a pool thread. The SQL time and cache lookups
+     * {@link SqlTimingSessionListener} counts there are left in {@code spent}, for the caller to add to its own
+     * thread's totals.
+     */
+    private <T> CompletableFuture<T> submit(int shard, Supplier<T> query, Queue<SqlTimingSessionListener.Totals> spent) {
+        return CompletableFuture.supplyAsync(() -> {
+            SqlTimingSessionListener.Totals before = SqlTimingSessionListener.Totals.current();
+            try {
+                return ShardContext.on(shard, query);
+            } finally {
+                spent.add(SqlTimingSessionListener.Totals.current()
+                                                         .since(before));
+            }
+        }, executor);
+    }
+
+    /**
+     * Shards still running when the caller returns, e.g. after {@link #any} found a match, are not counted.
+     */
+    private static void addToCurrentThread(Queue<SqlTimingSessionListener.Totals> spent) {
+        for (SqlTimingSessionListener.Totals totals = spent.poll(); totals != null; totals = spent.poll()) {
+            totals.addToCurrentThread();
+        }
+    }
+
+    private <T> Stream<T> streamOn(int shard, Supplier<Stream<T>> query) {
+        TransactionStatus transaction = transactionManager.getTransaction(readOnlyNewTransaction);
+        try {
+            return ShardContext.on(shard, query)
+                               .onClose(() -> transactionManager.commit(transaction));
+        } catch (RuntimeException | Error e) {
+            transactionManager.rollback(transaction);
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+}
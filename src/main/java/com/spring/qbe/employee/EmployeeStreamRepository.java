@@ -0,0 +1,16 @@
+package com.spring.qbe.employee;
+
+import org.springframework.data.domain.Example;
+
+import java.util.stream.Stream;
+
+public interface EmployeeStreamRepository {
+
+    /**
+     * Streams matches through a forward-only, read-only JDBC cursor ordered by id.
+     * Rows are detached as they are read, so neither the result nor the persistence context grows with it.
+     * Must be consumed inside a transaction and closed by the caller.
+     */
+    Stream<Employee> streamAll(Example<Employee> example);
+
+}
@@ -0,0 +1,41 @@
+package com.spring.qbe.employee;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Example;
+
+import java.util.stream.Stream;
+
+class EmployeeStreamRepositoryImpl implements EmployeeStreamRepository {
+
+    /**
+     * Connector/J only streams rows one at a time for forward-only, read-only statements with this fetch size;
+     * any other value buffers the whole result set in the driver.
+     */
+    private static final int MYSQL_STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+
+    private final EntityManager entityManager;
+    private final ExampleQueryCache queryCache;
+
+    EmployeeStreamRepositoryImpl(EntityManager entityManager, ExampleQueryCache queryCache) {
+        this.entityManager = entityManager;
+        this.queryCache = queryCache;
+    }
+
+    @Override
+    public Stream<Employee> streamAll(Example<Employee> example) {
+        NormalizedProbe probe = NormalizedProbe.of(example);
+        CompiledExampleQuery query = queryCache.get(probe.shape());
+        return query.bindAfterId(query.bind(entityManager.createQuery(query.keysetSelectJpql(), Employee.class), probe), Long.MIN_VALUE)
+                    .setHint(HibernateHints.HINT_FETCH_SIZE, MYSQL_STREAMING_FETCH_SIZE)
+                    .setHint(HibernateHints.HINT_READ_ONLY, true)
+                    .getResultStream()
+                    .map(this::detach);
+    }
+
+    private Employee detach(Employee employee) {
+        entityManager.detach(employee);
+        return employee;
+    }
+
+}
@@ -0,0 +1,9 @@
+package com.spring.qbe.employee;
+
+/**
+ * A write to the {@code employees} table whose affected rows are not known individually.
+ * Consumers of {@link EmployeeChangedEvent} must treat it as "any row may have changed".
+ */
+public record EmployeeTableChangedEvent(String reason) {
+
+}
@@ -0,0 +1,247 @@
+package com.spring.qbe.employee;
+
+import com.spring.qbe.config.PrimaryReads;
+import com.spring.qbe.config.ReplicaRoutingProperties;
+import com.spring.qbe.config.ShardContext;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Version counters of the {@code employees} table, kept in {@code cache_versions} and so shared by every node
+ * writing to the database, from which read endpoints derive strong ETags. Next to the table-wide version there
+ * is one per department, so answers for a probe pinned to one department stay valid while other departments
+ * change; bulk writes, whose rows are not known, have a counter of their own, which writes of departments
+ * outside printable ASCII bump as well, since the collation may equate them with other names.
+ * <p>
+ * A transaction that wrote employees bumps each counter it touched once, after it committed and after every
+ * copy of the table on this node applied the write (listeners ordered by {@link #APPLY_ORDER}), so a version
+ * never runs ahead of the rows it stands for. This node keeps the latest counters it knows of in memory:
+ * its own bumps advance them, and {@link EmployeeCacheInvalidator} polls for those of other nodes. A
+ * conditional request is answered from them without a query.
+ * <p>
+ * An answer is labeled with the counters the copy it was read from has applied ({@link AnswerVersions}), which
+ * may be older than the known ones; its ETag then differs from the one of the next conditional request, which
+ * costs a full response but never confirms an answer older than its tag.
+ */
+@Component
+class EmployeeTableVersion {
+
+    static final String BULK_REGION = Employee.CACHE_REGION + ".bulk";
+
+    /**
+     * Order of the transactional listeners that apply a committed write to a copy of the table; they run before
+     * the counters move past the write.
+     */
+    static final int APPLY_ORDER = Ordered.HIGHEST_PRECEDENCE;
+
+    private static final String DEPARTMENT_REGION = Employee.CACHE_REGION + ".department.";
+
+    private final CacheVersionRepository cacheVersionRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean replicas;
+    private final TransactionTemplate transaction;
+    private final TransactionTemplate readOnlyTransaction;
+    private final TransactionTemplate readOnlyQuery;
+    private final ConcurrentMap<String, Long> known = new ConcurrentHashMap<>();
+
+    EmployeeTableVersion(CacheVersionRepository cacheVersionRepository, ApplicationEventPublisher eventPublisher,
+                         ReplicaRoutingProperties replicaProperties, PlatformTransactionManager transactionManager) {
+        this.cacheVersionRepository = cacheVersionRepository;
+        this.eventPublisher = eventPublisher;
+        this.replicas = replicaProperties.enabled();
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.readOnlyQuery = new TransactionTemplate(transactionManager);
+        this.readOnlyQuery.setReadOnly(true);
+    }
+
+    /**
+     * Returns a strong ETag for a response that depends on the table and on {@code request}, everything
+     * besides the table contents that determines the response body, as of the counters this node knows.
+     *
+     * @param department the department every matching row must have (compared as MySQL does, ignoring case
+     *                   and accents), or {@code null} if the response may depend on any row
+     */
+    String etag(String department, Object... request) {
+        return etagAt(known, department, request);
+    }
+
+    /**
+     * Like {@link #etag}, for an answer read from a copy that applied {@code versions}.
+     */
+    String etagAt(Map<String, Long> versions, String department, Object... request) {
+        String version = regions(department).stream()
+                                            .map(region -> Long.toString(versions.getOrDefault(region, 0L)))
+                                            .collect(Collectors.joining("."));
+        return '"' + version + '-' + Integer.toHexString(Arrays.hashCode(request)) + '"';
+    }
+
+    Map<String, Long> known() {
+        return Map.copyOf(known);
+    }
+
+    /**
+     * Reads every counter from the primary. The counters live on shard 0, whichever shard holds the department.
+     */
+    Map<String, Long> counters() {
+        return PrimaryReads.on(() -> ShardContext.on(0, () -> readOnlyTransaction.execute(status -> countersOf(cacheVersionRepository.findAll()))));
+    }
+
+    /**
+     * Takes {@code counters}, read after the writes they count committed, as known; counters never move back.
+     */
+    void advance(Map<String, Long> counters) {
+        counters.forEach((region, counter) -> known.merge(region, counter, Long::max));
+    }
+
+    /**
+     * Runs {@code query} and reports to {@link AnswerVersions} what it reads. The primary has applied every
+     * counter this node knows of, so without replicas those known before the query are reported. A replica
+     * may lag behind them; there the counters are read in the query's read-only transaction, from the same
+     * snapshot as its rows, at the cost of one more primary key lookup.
+     */
+    <T> T read(Supplier<T> query) {
+        if (!replicas) {
+            Map<String, Long> versions = known();
+            T answer = query.get();
+            AnswerVersions.report(versions);
+            return answer;
+        }
+        return readOnlyQuery.execute(status -> {
+            Map<String, Long> versions = countersOf(cacheVersionRepository.findAll());
+            T answer = query.get();
+            AnswerVersions.report(versions);
+            return answer;
+        });
+    }
+
+    /**
+     * Runs inside the writing transaction, so that a transaction saving many employees bumps each counter once.
+     */
+    @EventListener
+    void onEmployeeChanged(EmployeeChangedEvent event) {
+        Set<String> regions = new TreeSet<>();
+        addDepartment(event.before(), regions);
+        addDepartment(event.after(), regions);
+        bumpOnCommit(regions);
+    }
+
+    @EventListener
+    void onEmployeeTableChanged(EmployeeTableChangedEvent event) {
+        bumpOnCommit(new TreeSet<>(Set.of(BULK_REGION)));
+    }
+
+    /**
+     * Bumps {@code regions} and the table-wide counter when the current transaction completed with a commit,
+     * merged with everything else it wrote; without a transaction, right away. The callback is registered with
+     * the transaction and suspended along with it, so a nested {@code REQUIRES_NEW} transaction bumps its own.
+     * It runs last among the transaction's callbacks, after the listeners of {@link #APPLY_ORDER}.
+     */
+    @SuppressWarnings("unchecked")
+    private void bumpOnCommit(Set<String> regions) {
+        regions.add(Employee.CACHE_REGION);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            bump(regions);
+            return;
+        }
+
+        Set<String> pending = (Set<String>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Set<String> transactionRegions = new TreeSet<>();
+            TransactionSynchronizationManager.bindResource(this, transactionRegions);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+                @Override
+                public int getOrder() {
+                    return Ordered.LOWEST_PRECEDENCE;
+                }
+
+                @Override
+                public void suspend() {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(EmployeeTableVersion.this);
+                }
+
+                @Override
+                public void resume() {
+                    TransactionSynchronizationManager.bindResource(EmployeeTableVersion.this, transactionRegions);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(EmployeeTableVersion.this);
+                    if (status == STATUS_COMMITTED) {
+                        bump(transactionRegions);
+                    }
+                }
+
+            });
+            pending = transactionRegions;
+        }
+        pending.addAll(regions);
+    }
+
+    /**
+     * Bumps in region order, so that concurrent transactions lock the rows in the same order and cannot deadlock.
+     * The counters are read back while the rows are still locked, so they are exactly the ones of this bump.
+     */
+    private void bump(Set<String> regions) {
+        Map<String, Long> counters = ShardContext.on(0, () -> transaction.execute(status -> {
+            regions.forEach(cacheVersionRepository::bumpOrCreate);
+            return countersOf(cacheVersionRepository.findByRegionIn(regions));
+        }));
+        advance(counters);
+        eventPublisher.publishEvent(new EmployeeVersionBumpedEvent(counters));
+    }
+
+    /**
+     * The regions whose counters an answer for {@code department} depends on.
+     */
+    private static List<String> regions(String department) {
+        return department == null || !NormalizedProbe.isPrintableAscii(department) ? List.of(Employee.CACHE_REGION)
+            : List.of(BULK_REGION, departmentRegion(department));
+    }
+
+    private static void addDepartment(Employee employee, Set<String> regions) {
+        if (employee != null && employee.getDepartment() != null) {
+            regions.add(departmentRegion(employee.getDepartment()));
+            if (!NormalizedProbe.isPrintableAscii(employee.getDepartment())) {
+                regions.add(BULK_REGION);
+            }
+        }
+    }
+
+    private static Map<String, Long> countersOf(List<CacheVersion> versions) {
+        return versions.stream()
+                       .collect(Collectors.toMap(CacheVersion::getId, CacheVersion::getCounter));
+    }
+
+    /**
+     * Departments are hashed to keep region names short; two departments sharing a hash only invalidate each
+     * other's tags.
+     */
+    private static String departmentRegion(String department) {
+        return DEPARTMENT_REGION + Integer.toHexString(NormalizedProbe.fold(department)
+                                                                      .hashCode());
+    }
+
+}
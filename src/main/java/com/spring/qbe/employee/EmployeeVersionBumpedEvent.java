@@ -0,0 +1,18 @@
+package com.spring.qbe.employee;
+
+import java.util.Map;
+
+/**
+ * The counters in {@code cache_versions} right after {@link EmployeeTableVersion} bumped them for a transaction
+ * committed through this node, by region; only the regions of that bump are present.
+ */
+public record EmployeeVersionBumpedEvent(Map<String, Long> counters) {
+
+    /**
+     * The table-wide version.
+     */
+    public long version() {
+        return counters.get(Employee.CACHE_REGION);
+    }
+
+}
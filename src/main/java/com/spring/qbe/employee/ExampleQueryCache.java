@@ -0,0 +1,34 @@
+package com.spring.qbe.employee;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps one {@link CompiledExampleQuery} per {@link ProbeShape}. The number of shapes is small in practice;
+ * past {@link #MAX_SHAPES} new shapes are compiled on every call instead of growing the cache.
+ */
+@Component
+class ExampleQueryCache {
+
+    static final int MAX_SHAPES = 1024;
+
+    private final Map<ProbeShape, CompiledExampleQuery> compiled = new ConcurrentHashMap<>();
+
+    CompiledExampleQuery get(ProbeShape shape) {
+        CompiledExampleQuery query = compiled.get(shape);
+        if (query != null) {
+            return query;
+        }
+        if (compiled.size() >= MAX_SHAPES) {
+            return CompiledExampleQuery.compile(shape);
+        }
+        return compiled.computeIfAbsent(shape, CompiledExampleQuery::compile);
+    }
+
+    int size() {
+        return compiled.size();
+    }
+
+}
@@ -0,0 +1,19 @@
+package com.spring.qbe.employee;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings of the streaming employee export.
+ *
+ * @param fetchSize rows fetched per round trip. {@code -2147483648} ({@link Integer#MIN_VALUE}) makes
+ *                  Connector/J stream rows one at a time; a positive value fetches that many rows at a time
+ *                  through a server-side cursor, which requires {@code useCursorFetch=true} in the MySQL URL
+ *                  (without it the driver buffers the whole result)
+ */
+@ConfigurationProperties("qbe.export")
+public record ExportProperties(
+    @DefaultValue("-2147483648") int fetchSize
+) {
+
+}
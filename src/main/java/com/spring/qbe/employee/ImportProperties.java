@@ -0,0 +1,22 @@
+package com.spring.qbe.employee;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings of the bulk employee import.
+ *
+ * @param batchSize        rows per multi-row {@code INSERT}; each statement commits on its own, so this also
+ *                         bounds the rows held in memory and the work lost if an import fails midway
+ * @param progressInterval rows between progress log lines
+ * @param seed             CSV resource imported at startup when the {@code employees} table is empty;
+ *                         blank to disable seeding
+ */
+@ConfigurationProperties("qbe.import")
+public record ImportProperties(
+    @DefaultValue("1000") int batchSize,
+    @DefaultValue("100000") long progressInterval,
+    @DefaultValue("classpath:employees.csv") String seed
+) {
+
+}
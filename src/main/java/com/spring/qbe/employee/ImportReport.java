@@ -0,0 +1,14 @@
+package com.spring.qbe.employee;
+
+import java.time.Duration;
+
+/**
+ * Outcome of an {@link EmployeeImporter} run.
+ */
+public record ImportReport(long rows, Duration elapsed, double rowsPerSecond) {
+
+    static ImportReport of(long rows, long elapsedNanos) {
+        return new ImportReport(rows, Duration.ofNanos(elapsedNanos), elapsedNanos == 0 ? 0 : rows * 1_000_000_000.0 / elapsedNanos);
+    }
+
+}
@@ -0,0 +1,17 @@
+package com.spring.qbe.employee;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidProjectionException extends RuntimeException {
+
+    public InvalidProjectionException(String message) {
+        super(message);
+    }
+
+    public InvalidProjectionException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+}
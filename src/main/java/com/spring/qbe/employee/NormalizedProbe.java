@@ -0,0 +1,196 @@
+package com.spring.qbe.employee;
+
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.ExampleMatcher;
+import org.springframework.data.support.ExampleMatcherAccessor;
+
+import java.math.BigDecimal;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * An {@link Employee} example reduced to its {@link ProbeShape} plus the values bound to it, with value
+ * transformers applied and case-insensitive values folded. Follows the same rules Spring Data JPA uses
+ * to turn an example into a predicate, so equal probes select equal rows.
+ */
+record NormalizedProbe(ProbeShape shape, List<Object> values) {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    NormalizedProbe {
+        values = Collections.unmodifiableList(new ArrayList<>(values));
+    }
+
+    static NormalizedProbe of(Example<? extends Employee> example) {
+        Employee probe = example.getProbe();
+        ExampleMatcher matcher = example.getMatcher();
+        ExampleMatcherAccessor accessor = new ExampleMatcherAccessor(matcher);
+
+        List<ProbeShape.Condition> conditions = new ArrayList<>();
+        List<Object> values = new ArrayList<>();
+        for (EmployeeAttribute attribute : EmployeeAttribute.values()) {
+            String path = attribute.property();
+            if (accessor.isIgnoredPath(path)) {
+                continue;
+            }
+
+            Object value = accessor.getValueTransformerForPath(path)
+                                   .apply(Optional.ofNullable(attribute.valueOf(probe)))
+                                   .orElse(null);
+            if (value == null) {
+                if (accessor.getNullHandler() == ExampleMatcher.NullHandler.INCLUDE) {
+                    conditions.add(new ProbeShape.Condition(attribute, ProbeShape.Comparison.IS_NULL, false));
+                    values.add(null);
+                }
+                continue;
+            }
+
+            if (!attribute.isString()) {
+                conditions.add(new ProbeShape.Condition(attribute, ProbeShape.Comparison.EQUALS, false));
+                values.add(value);
+                continue;
+            }
+
+            boolean ignoreCase = accessor.isIgnoreCaseForPath(path);
+            String text = ignoreCase ? fold(value.toString()) : value.toString();
+            conditions.add(new ProbeShape.Condition(attribute, comparisonOf(accessor.getStringMatcherForPath(path)), ignoreCase));
+            values.add(text);
+        }
+
+        return new NormalizedProbe(new ProbeShape(conditions, matcher.isAllMatching()), values);
+    }
+
+    /**
+     * Adds the ranges to this probe as {@link ProbeShape.Bound}s, with their values after the example's.
+     */
+    NormalizedProbe withRanges(List<EmployeeRange> ranges) {
+        if (ranges.isEmpty()) {
+            return this;
+        }
+
+        List<ProbeShape.Bound> bounds = new ArrayList<>(shape.bounds());
+        List<Object> boundValues = new ArrayList<>(values);
+        for (EmployeeRange range : ranges) {
+            if (range.min() != null) {
+                bounds.add(new ProbeShape.Bound(range.attribute(), true));
+                boundValues.add(range.min());
+            }
+            if (range.max() != null) {
+                bounds.add(new ProbeShape.Bound(range.attribute(), false));
+                boundValues.add(range.max());
+            }
+        }
+        return new NormalizedProbe(new ProbeShape(shape.conditions(), shape.allMatching(), bounds), boundValues);
+    }
+
+    /**
+     * Evaluates the probe against an employee in memory. Strings are compared the way MySQL's default
+     * case- and accent-insensitive collation compares them, so a row that matches in the database
+     * always matches here.
+     */
+    boolean matches(Employee employee) {
+        return matchesConditions(employee) && matchesBounds(employee);
+    }
+
+    private boolean matchesConditions(Employee employee) {
+        if (shape.conditions()
+                 .isEmpty()) {
+            return true;
+        }
+
+        boolean allMatching = shape.allMatching();
+        List<ProbeShape.Condition> conditions = shape.conditions();
+        for (int i = 0; i < conditions.size(); i++) {
+            ProbeShape.Condition condition = conditions.get(i);
+            boolean matched = matches(condition, values.get(i), condition.attribute()
+                                                                         .valueOf(employee));
+            if (matched != allMatching) {
+                return matched;
+            }
+        }
+        return allMatching;
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean matchesBounds(Employee employee) {
+        List<ProbeShape.Bound> bounds = shape.bounds();
+        int offset = shape.conditions()
+                          .size();
+        for (int i = 0; i < bounds.size(); i++) {
+            ProbeShape.Bound bound = bounds.get(i);
+            Comparable<Object> actual = (Comparable<Object>) bound.attribute()
+                                                                  .valueOf(employee);
+            if (actual == null) {
+                return false;
+            }
+            int comparison = actual.compareTo(values.get(offset + i));
+            if (bound.lower() ? comparison < 0 : comparison > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static String fold(String value) {
+        String decomposed = Normalizer.normalize(value, Normalizer.Form.NFD);
+        return COMBINING_MARKS.matcher(decomposed)
+                              .replaceAll("")
+                              .toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Whether {@link #fold} is known to agree with the collation on {@code value}: two printable ASCII strings
+     * are equal in MySQL exactly when their folds are. Beyond ASCII the collation has expansions the fold
+     * lacks ({@code ß = ss}, {@code æ = ae}) and characters it ignores.
+     */
+    static boolean isPrintableAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < ' ' || c > '~') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean matches(ProbeShape.Condition condition, Object expected, Object actual) {
+        if (condition.comparison() == ProbeShape.Comparison.IS_NULL) {
+            return actual == null;
+        }
+        if (actual == null) {
+            return false;
+        }
+        if (expected instanceof BigDecimal decimal && actual instanceof BigDecimal other) {
+            return decimal.compareTo(other) == 0;
+        }
+        if (!(expected instanceof String text)) {
+            return expected.equals(actual);
+        }
+
+        String folded = fold(text);
+        String candidate = fold(actual.toString());
+        return switch (condition.comparison()) {
+            case EQUALS -> candidate.equals(folded);
+            case STARTS_WITH -> candidate.startsWith(folded);
+            case ENDS_WITH -> candidate.endsWith(folded);
+            case CONTAINS -> candidate.contains(folded);
+            case IS_NULL -> throw new IllegalStateException("Unreachable");
+        };
+    }
+
+    private static ProbeShape.Comparison comparisonOf(ExampleMatcher.StringMatcher stringMatcher) {
+        return switch (stringMatcher) {
+            case DEFAULT, EXACT -> ProbeShape.Comparison.EQUALS;
+            case STARTING -> ProbeShape.Comparison.STARTS_WITH;
+            case ENDING -> ProbeShape.Comparison.ENDS_WITH;
+            case CONTAINING -> ProbeShape.Comparison.CONTAINS;
+            case REGEX -> throw new UnsupportedOperationException("Unsupported StringMatcher " + stringMatcher);
+        };
+    }
+
+}
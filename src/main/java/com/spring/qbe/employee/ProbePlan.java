@@ -0,0 +1,25 @@
+package com.spring.qbe.employee;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * How the database executes the query of a probe shape.
+ *
+ * @param shape         the probe shape, as in {@link ProbeShape#describe()}
+ * @param statement     which of the probe's statements is explained
+ * @param sql           the statement explained, with {@code ?} placeholders
+ * @param plan          the rows of MySQL's {@code EXPLAIN}, one per table access, of every shard queried
+ * @param estimatedRows rows the database expects to read, summed over the plan; for a limited statement, the rows
+ *                      it expects to read before {@code limit} of them match
+ * @param indexes       indexes the plan uses; empty when it reads the table directly
+ * @param fullScan      whether any access reads a whole table or a whole index
+ */
+public record ProbePlan(String shape, ProbeStatement statement, String sql, List<Map<String, Object>> plan, long estimatedRows, List<String> indexes,
+                        boolean fullScan) {
+
+    boolean exceeds(long maxScannedRows) {
+        return fullScan && estimatedRows > maxScannedRows;
+    }
+
+}
@@ -0,0 +1,80 @@
+package com.spring.qbe.employee;
+
+import org.springframework.data.domain.Example;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Applies {@link ProbePolicyProperties} to the queries {@link EmployeeService} sends to the database. Probes
+ * whose cached {@link ProbePlan} is a full scan above the threshold are rejected, or run only while one of
+ * {@link ProbePolicyProperties#maxConcurrentScans()} permits is held. Every other probe runs unchecked. The plan
+ * judged is that of the statement about to run, so a keyset page is weighed by the rows it reads, not by
+ * the whole result.
+ */
+@Component
+class ProbePolicy {
+
+    private final ProbePolicyProperties.Action action;
+    private final long maxScannedRows;
+    private final Semaphore scans;
+    private final long throttleTimeoutNanos;
+    private final EmployeeQueryPlanner planner;
+
+    ProbePolicy(ProbePolicyProperties properties, EmployeeQueryPlanner planner) {
+        this.action = properties.action();
+        this.maxScannedRows = properties.maxScannedRows();
+        this.scans = new Semaphore(properties.maxConcurrentScans(), true);
+        this.throttleTimeoutNanos = properties.throttleTimeout()
+                                              .toNanos();
+        this.planner = planner;
+    }
+
+    ProbePlan plan(Example<Employee> example, List<EmployeeRange> ranges, ProbeStatement statement) {
+        return planner.plan(example, ranges, statement);
+    }
+
+    /**
+     * Runs {@code query}, which executes {@code statement} for {@code example} restricted to {@code ranges}, if
+     * the policy lets it through.
+     */
+    <T> T guard(Example<Employee> example, List<EmployeeRange> ranges, ProbeStatement statement, Supplier<T> query) {
+        if (action == ProbePolicyProperties.Action.ALLOW) {
+            return query.get();
+        }
+
+        ProbePlan plan = planner.plan(example, ranges, statement);
+        if (!plan.exceeds(maxScannedRows)) {
+            return query.get();
+        }
+        if (action == ProbePolicyProperties.Action.REJECT) {
+            throw new ProbeRejectedException("Probe " + plan.shape() + " needs a full scan of about " + plan.estimatedRows()
+                + " rows; constrain it with an indexed attribute");
+        }
+
+        acquire(plan);
+        try {
+            return query.get();
+        } finally {
+            scans.release();
+        }
+    }
+
+    private void acquire(ProbePlan plan) {
+        boolean acquired;
+        try {
+            acquired = scans.tryAcquire(throttleTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                  .interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            throw new ProbeThrottledException("Too many full scans in progress for probe " + plan.shape());
+        }
+    }
+
+}
@@ -0,0 +1,41 @@
+package com.spring.qbe.employee;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Protection of the database against probes it can only answer by scanning the table.
+ *
+ * @param action             what happens to a probe whose plan is a full scan of more than {@code maxScannedRows}
+ * @param maxScannedRows     estimated rows a full scan may read before {@code action} applies
+ * @param maxConcurrentScans full scans above the threshold allowed to run at once when throttling
+ * @param throttleTimeout    how long a throttled probe may wait for its turn before it is rejected with 503
+ * @param planTtl            how long the plan of a probe shape is reused; row estimates grow with the table
+ */
+@ConfigurationProperties("qbe.probe-policy")
+public record ProbePolicyProperties(
+    @DefaultValue("allow") Action action,
+    @DefaultValue("100000") long maxScannedRows,
+    @DefaultValue("2") int maxConcurrentScans,
+    @DefaultValue("1s") Duration throttleTimeout,
+    @DefaultValue("10m") Duration planTtl
+) {
+
+    public enum Action {
+        /**
+         * Every probe runs; none is explained before it does.
+         */
+        ALLOW,
+        /**
+         * Probes above the threshold fail with 422 without reaching the database.
+         */
+        REJECT,
+        /**
+         * Probes above the threshold run at most {@code maxConcurrentScans} at a time.
+         */
+        THROTTLE
+    }
+
+}
@@ -0,0 +1,13 @@
+package com.spring.qbe.employee;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+public class ProbeRejectedException extends RuntimeException {
+
+    public ProbeRejectedException(String message) {
+        super(message);
+    }
+
+}
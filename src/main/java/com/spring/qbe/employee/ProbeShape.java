@@ -0,0 +1,71 @@
+package com.spring.qbe.employee;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.StringJoiner;
+
+/**
+ * The value-independent part of an {@link Employee} example: which attributes take part in the predicate,
+ * how each of them is compared and whether all or any of the conditions must hold.
+ * {@code bounds} are range limits given next to the example; they always hold in addition to the conditions,
+ * whatever the matching mode. Two probes with the same shape compile to the same query and differ only in
+ * bound values.
+ */
+record ProbeShape(List<Condition> conditions, boolean allMatching, List<Bound> bounds) {
+
+    ProbeShape {
+        conditions = List.copyOf(conditions);
+        bounds = List.copyOf(bounds);
+    }
+
+    ProbeShape(List<Condition> conditions, boolean allMatching) {
+        this(conditions, allMatching, List.of());
+    }
+
+    boolean isUnconstrained() {
+        return conditions.isEmpty() && bounds.isEmpty();
+    }
+
+    /**
+     * A compact, value-free rendering such as {@code department:equals&position:equals}, suitable as a metric tag.
+     */
+    String describe() {
+        StringJoiner description = new StringJoiner(allMatching ? "&" : "|");
+        description.setEmptyValue("*");
+        for (Condition condition : conditions) {
+            description.add(condition.attribute()
+                                     .property() + ":" + condition.comparison()
+                                                                  .name()
+                                                                  .toLowerCase(Locale.ROOT) + (condition.ignoreCase() ? ":ci" : ""));
+        }
+        for (Bound bound : bounds) {
+            description.add(bound.attribute()
+                                 .property() + (bound.lower() ? ":min" : ":max"));
+        }
+        return description.toString();
+    }
+
+    record Condition(EmployeeAttribute attribute, Comparison comparison, boolean ignoreCase) {
+
+        boolean hasValue() {
+            return comparison != Comparison.IS_NULL;
+        }
+
+    }
+
+    /**
+     * An inclusive lower ({@code >=}) or upper ({@code <=}) limit on a comparable attribute.
+     */
+    record Bound(EmployeeAttribute attribute, boolean lower) {
+
+    }
+
+    enum Comparison {
+        IS_NULL,
+        EQUALS,
+        STARTS_WITH,
+        ENDS_WITH,
+        CONTAINS
+    }
+
+}
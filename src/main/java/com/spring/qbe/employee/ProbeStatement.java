@@ -0,0 +1,35 @@
+package com.spring.qbe.employee;
+
+/**
+ * Which statement {@link EmployeeService} runs for a probe, so {@link ProbePolicy} judges the plan of that
+ * statement rather than of an unbounded select.
+ *
+ * @param kind  whether every match is read, the first {@code limit} in any order, or a keyset page
+ * @param limit rows the statement stops after; 0 for {@link Kind#ALL}
+ */
+public record ProbeStatement(Kind kind, int limit) {
+
+    static final ProbeStatement ALL = new ProbeStatement(Kind.ALL, 0);
+
+    static ProbeStatement first(int limit) {
+        return new ProbeStatement(Kind.FIRST, limit);
+    }
+
+    /**
+     * The first keyset page of {@code limit} rows in id order; later pages seek past their position the same way.
+     */
+    static ProbeStatement page(int limit) {
+        return new ProbeStatement(Kind.PAGE, limit);
+    }
+
+    boolean limited() {
+        return kind != Kind.ALL;
+    }
+
+    public enum Kind {
+        ALL,
+        FIRST,
+        PAGE
+    }
+
+}
@@ -0,0 +1,13 @@
+package com.spring.qbe.employee;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class ProbeThrottledException extends RuntimeException {
+
+    public ProbeThrottledException(String message) {
+        super(message);
+    }
+
+}
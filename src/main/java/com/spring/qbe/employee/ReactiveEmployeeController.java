@@ -0,0 +1,41 @@
+package com.spring.qbe.employee;
+
+import jakarta.validation.Valid;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+/**
+ * Streaming counterparts of the {@link EmployeeController} searches. Each response is written as matches
+ * arrive, as NDJSON or server-sent events, and back-pressure from the client connection decides when the
+ * next page is read from the database.
+ */
+@RestController
+@RequestMapping("/api/reactive/employees")
+public class ReactiveEmployeeController {
+
+    private final ReactiveEmployeeService reactiveEmployeeService;
+
+    public ReactiveEmployeeController(ReactiveEmployeeService reactiveEmployeeService) {
+        this.reactiveEmployeeService = reactiveEmployeeService;
+    }
+
+    @GetMapping(value = "/search", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<Employee> searchEmployees(
+        @RequestParam(required = false) String firstName,
+        @RequestParam(required = false) String department
+    ) {
+        return reactiveEmployeeService.findEmployeesWithCustomMatcher(firstName, department);
+    }
+
+    @PostMapping(value = "/search/example", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<Employee> findByExample(
+        @RequestBody @Valid Employee employee,
+        @RequestParam(required = false) List<String> range
+    ) {
+        return reactiveEmployeeService.findEmployeesByExample(employee, EmployeeController.parseRanges(range));
+    }
+
+}
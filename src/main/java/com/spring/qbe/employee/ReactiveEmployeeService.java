@@ -0,0 +1,74 @@
+package com.spring.qbe.employee;
+
+import com.spring.qbe.config.ReadRouting;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * Non-blocking view of {@link EmployeeService}: every search is a {@link Flux} that reads matches in keyset
+ * pages through the same service methods, so probes, matchers, caching and metrics behave identically.
+ * A page is read only when the subscriber has demand for it, on a small fixed pool of threads, and no
+ * connection is held between pages; a slow consumer therefore costs a subscription, not a thread.
+ */
+@Service
+public class ReactiveEmployeeService implements AutoCloseable {
+
+    private final EmployeeService employeeService;
+    private final int pageSize;
+    private final Scheduler scheduler;
+
+    public ReactiveEmployeeService(EmployeeService employeeService, ReactiveSearchProperties properties) {
+        this.employeeService = employeeService;
+        this.pageSize = properties.pageSize();
+        this.scheduler = Schedulers.fromExecutorService(Executors.newFixedThreadPool(properties.threads(), Thread.ofPlatform()
+                                                                                                                .name("employee-flux-", 0)
+                                                                                                                .daemon()
+                                                                                                                .factory()),
+            "employee-flux");
+    }
+
+    public Flux<Employee> findEmployeesByExample(Employee employee, List<EmployeeRange> ranges) {
+        return pages(position -> ranges.isEmpty()
+            ? employeeService.findEmployeesByExample(employee, position, pageSize)
+            : employeeService.findEmployeesByExample(employee, ranges, position, pageSize));
+    }
+
+    public Flux<Employee> findEmployeesWithCustomMatcher(String firstName, String department) {
+        return pages(position -> employeeService.findEmployeesWithCustomMatcher(firstName, department, position, pageSize));
+    }
+
+    /**
+     * Emits the pages returned by {@code fetch}, starting at the first one. The next page is read only once
+     * the subscriber has requested past the end of the current one, so nothing is read ahead of demand.
+     * Pages are read on the scheduler's threads with the read routing of the caller that assembled the flux,
+     * e.g. read-your-writes stickiness.
+     */
+    private Flux<Employee> pages(Function<ScrollPosition, Window<Employee>> fetch) {
+        ReadRouting routing = ReadRouting.capture();
+        return Flux.<Window<Employee>, ScrollPosition>generate(ScrollPosition::keyset, (position, sink) -> {
+                       Window<Employee> window = routing.on(() -> fetch.apply(position));
+                       sink.next(window);
+                       if (!window.hasNext() || window.isEmpty()) {
+                           sink.complete();
+                           return position;
+                       }
+                       return window.positionAt(window.size() - 1);
+                   })
+                   .subscribeOn(scheduler)
+                   .concatMap(window -> Flux.fromIterable(window.getContent()), 0);
+    }
+
+    @Override
+    public void close() {
+        scheduler.dispose();
+    }
+
+}
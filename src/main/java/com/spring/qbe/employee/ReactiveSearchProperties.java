@@ -0,0 +1,19 @@
+package com.spring.qbe.employee;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings of the reactive search endpoints.
+ *
+ * @param threads  threads running the page queries of every reactive search combined; size it at or below
+ *                 the JDBC pool, since each thread holds a connection only while one page is read
+ * @param pageSize rows read per query; the next page is only read once the client has consumed this one
+ */
+@ConfigurationProperties("qbe.reactive")
+public record ReactiveSearchProperties(
+    @DefaultValue("4") int threads,
+    @DefaultValue("500") int pageSize
+) {
+
+}
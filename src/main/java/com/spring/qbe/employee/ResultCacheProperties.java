@@ -0,0 +1,24 @@
+package com.spring.qbe.employee;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings of the in-process example query result cache.
+ *
+ * @param enabled      whether {@link EmployeeService} reads go through the cache at all; only safe when a single
+ *                     node writes to the database, since other nodes' writes do not invalidate it
+ * @param maximumSize  maximum number of cached results; eviction follows Caffeine's W-TinyLFU policy
+ * @param timeToLive   upper bound on the age of a cached result; invalidation is local to this node,
+ *                     so this also bounds staleness after writes made through other nodes
+ */
+@ConfigurationProperties("qbe.result-cache")
+public record ResultCacheProperties(
+    @DefaultValue("false") boolean enabled,
+    @DefaultValue("10000") long maximumSize,
+    @DefaultValue("1m") Duration timeToLive
+) {
+
+}
@@ -0,0 +1,22 @@
+package com.spring.qbe.employee;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Cross-node invalidation of Hibernate's second-level and query caches for {@link Employee}.
+ *
+ * @param enabled      whether other nodes' writes are picked up from the table-wide counter of
+ *                     {@link EmployeeTableVersion}; turn on together with Hibernate's caches
+ * @param pollInterval how often the counters are checked, i.e. how long other nodes may serve cached rows,
+ *                     and answer conditional requests as unmodified, after a write made through this one
+ */
+@ConfigurationProperties("qbe.l2-cache")
+public record SecondLevelCacheProperties(
+    @DefaultValue("false") boolean enabled,
+    @DefaultValue("1s") Duration pollInterval
+) {
+
+}
@@ -0,0 +1,78 @@
+package com.spring.qbe.employee;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Runs at most one load per key at a time: callers that ask for a key whose load is in flight wait for that
+ * load and share its result or exception instead of starting their own.
+ */
+final class SingleFlight<K> {
+
+    private final ConcurrentMap<K, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder joined = new LongAdder();
+
+    @SuppressWarnings("unchecked")
+    <T> T load(K key, Supplier<T> loader) {
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> leader = inFlight.putIfAbsent(key, flight);
+        if (leader != null) {
+            joined.increment();
+            return (T) await(leader);
+        }
+
+        loads.increment();
+        try {
+            T loaded = loader.get();
+            flight.complete(loaded);
+            return loaded;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * Makes later callers start new loads instead of joining the ones in flight, e.g. because a write
+     * committed after they started. Callers already waiting still get the result of their load.
+     */
+    void detachAll() {
+        inFlight.clear();
+    }
+
+    /**
+     * Number of loads that actually ran.
+     */
+    long loads() {
+        return loads.sum();
+    }
+
+    /**
+     * Number of callers served by another caller's load, i.e. loads saved.
+     */
+    long joined() {
+        return joined.sum();
+    }
+
+    private static Object await(CompletableFuture<Object> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+}
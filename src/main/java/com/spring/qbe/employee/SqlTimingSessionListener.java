@@ -0,0 +1,67 @@
+package com.spring.qbe.employee;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * Adds the time Hibernate spends executing JDBC statements, and the second-level and query cache lookups it
+ * makes, to per-thread totals that {@link EmployeeQueryMetrics} reads around each service call. Registered
+ * for every session through {@code hibernate.session.events.auto}, hence public with a no-arg constructor.
+ */
+public class SqlTimingSessionListener implements SessionEventListener {
+
+    private static final ThreadLocal<long[]> EXECUTION_NANOS = ThreadLocal.withInitial(() -> new long[1]);
+    private static final ThreadLocal<long[]> CACHE_LOOKUPS = ThreadLocal.withInitial(() -> new long[2]);
+
+    private long executionStarted;
+
+    static long executionNanos() {
+        return EXECUTION_NANOS.get()[0];
+    }
+
+    static long cacheHits() {
+        return CACHE_LOOKUPS.get()[0];
+    }
+
+    static long cacheMisses() {
+        return CACHE_LOOKUPS.get()[1];
+    }
+
+    /**
+     * The totals of the current thread, e.g. a pool thread querying a shard, so that what a piece of work spent
+     * there can be {@link #addToCurrentThread() added} to the thread that measures it.
+     */
+    record Totals(long executionNanos, long cacheHits, long cacheMisses) {
+
+        static Totals current() {
+            return new Totals(SqlTimingSessionListener.executionNanos(), SqlTimingSessionListener.cacheHits(),
+                SqlTimingSessionListener.cacheMisses());
+        }
+
+        Totals since(Totals before) {
+            return new Totals(executionNanos - before.executionNanos, cacheHits - before.cacheHits, cacheMisses - before.cacheMisses);
+        }
+
+        void addToCurrentThread() {
+            EXECUTION_NANOS.get()[0] += executionNanos;
+            CACHE_LOOKUPS.get()[0] += cacheHits;
+            CACHE_LOOKUPS.get()[1] += cacheMisses;
+        }
+
+    }
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        executionStarted = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        EXECUTION_NANOS.get()[0] += System.nanoTime() - executionStarted;
+    }
+
+    @Override
+    public void cacheGetEnd(boolean hit) {
+        CACHE_LOOKUPS.get()[hit ? 0 : 1]++;
+    }
+
+}
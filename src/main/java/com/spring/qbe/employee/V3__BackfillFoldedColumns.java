@@ -0,0 +1,53 @@
+package com.spring.qbe.employee;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Fills the shadow columns added by {@code V2__add_folded_columns.sql} for rows written before they existed.
+ * The fold is {@link NormalizedProbe#fold}, the same function {@link Employee} applies on every write, so it
+ * runs in Java rather than as an SQL update. Rows are walked in id order, {@link #BATCH_SIZE} at a time.
+ * <p>
+ * Registered as a bean, the way Spring Boot hands Java migrations to Flyway; the class name carries the version.
+ */
+@Component
+class V3__BackfillFoldedColumns extends BaseJavaMigration {
+
+    private static final int BATCH_SIZE = 1_000;
+
+    private static final String SELECT = "select id, first_name, last_name, department, position from employees where id > ? order by id limit " + BATCH_SIZE;
+    private static final String UPDATE = "update employees set first_name_folded = ?, last_name_folded = ?, department_folded = ?, position_folded = ? where id = ?";
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        Connection connection = context.getConnection();
+        try (PreparedStatement select = connection.prepareStatement(SELECT);
+             PreparedStatement update = connection.prepareStatement(UPDATE)) {
+            long lastId = Long.MIN_VALUE;
+            int rows;
+            do {
+                rows = 0;
+                select.setLong(1, lastId);
+                try (ResultSet resultSet = select.executeQuery()) {
+                    while (resultSet.next()) {
+                        lastId = resultSet.getLong(1);
+                        for (int column = 2; column <= 5; column++) {
+                            update.setString(column - 1, Employee.fold(resultSet.getString(column)));
+                        }
+                        update.setLong(5, lastId);
+                        update.addBatch();
+                        rows++;
+                    }
+                }
+                update.executeBatch();
+            } while (rows == BATCH_SIZE);
+        }
+    }
+
+}
@@ -0,0 +1,30 @@
+-- Schema of the employees entity as mapped by Hibernate; spring.jpa.hibernate.ddl-auto=validate checks it.
+
+create table employees
+(
+    id         bigint not null,
+    department varchar(255),
+    first_name varchar(255),
+    last_name  varchar(255),
+    position   varchar(255),
+    salary     decimal(38, 2),
+    primary key (id)
+);
+
+create index idx_employees_department_position_salary on employees (department, position, salary);
+
+-- Backing table of the pooled id generator (MySQL has no sequences); see Employee.ID_ALLOCATION_SIZE.
+create table employees_seq
+(
+    next_val bigint
+);
+
+insert into employees_seq (next_val) values (1);
+
+-- Cross-node invalidation counters of Hibernate's second-level cache; see EmployeeCacheInvalidator.
+create table cache_versions
+(
+    region  varchar(255) not null,
+    counter bigint       not null,
+    primary key (region)
+);
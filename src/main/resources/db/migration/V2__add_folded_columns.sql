@@ -0,0 +1,14 @@
+-- Case-folded, accent-stripped shadow columns that case-insensitive example conditions compare instead of
+-- lower(column), so they can use an index; Employee maintains them on every write. Existing rows are
+-- filled in by V3__BackfillFoldedColumns, since the fold is Java's, not the database collation's.
+
+alter table employees
+    add column department_folded varchar(255),
+    add column first_name_folded varchar(255),
+    add column last_name_folded  varchar(255),
+    add column position_folded   varchar(255);
+
+create index idx_employees_first_name_folded on employees (first_name_folded);
+create index idx_employees_last_name_folded on employees (last_name_folded);
+create index idx_employees_department_folded on employees (department_folded);
+create index idx_employees_position_folded on employees (position_folded);
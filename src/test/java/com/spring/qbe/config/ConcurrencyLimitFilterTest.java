@@ -0,0 +1,83 @@
+package com.spring.qbe.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConcurrencyLimitFilterTest {
+
+    @DisplayName("Should reject requests beyond the in-flight limit with 503")
+    @Test
+    void shouldRejectRequestsBeyondLimit() throws Exception {
+        // given
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(new ConcurrencyLimitProperties(true, 1, Duration.ofMillis(10)));
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<?> inFlight = executor.submit(() -> {
+                filter.doFilter(new MockHttpServletRequest("GET", "/api/employees/search"), new MockHttpServletResponse(),
+                    (request, response) -> {
+                        entered.countDown();
+                        awaitUninterruptibly(release);
+                    });
+                return null;
+            });
+            entered.await();
+
+            // when
+            MockHttpServletResponse rejected = new MockHttpServletResponse();
+            filter.doFilter(new MockHttpServletRequest("GET", "/api/employees/search"), rejected, new MockFilterChain());
+            release.countDown();
+            inFlight.get();
+
+            // then
+            assertThat(rejected.getStatus()).isEqualTo(503);
+            assertThat(rejected.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+            assertThat(filter.availablePermits()).isEqualTo(1);
+        }
+    }
+
+    @DisplayName("Should hold the permit of an async request until it completes")
+    @Test
+    void shouldHoldPermitUntilAsyncCompletion() throws Exception {
+        // given
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(new ConcurrencyLimitProperties(true, 1, Duration.ofMillis(10)));
+        MockHttpServletRequest streaming = new MockHttpServletRequest("GET", "/api/employees/export");
+        streaming.setAsyncSupported(true);
+
+        // when
+        filter.doFilter(streaming, new MockHttpServletResponse(), (request, response) -> request.startAsync());
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/employees/search"), rejected, new MockFilterChain());
+        int permitsWhileStreaming = filter.availablePermits();
+        streaming.getAsyncContext()
+                 .complete();
+
+        // then
+        assertThat(rejected.getStatus()).isEqualTo(503);
+        assertThat(permitsWhileStreaming).isZero();
+        assertThat(filter.availablePermits()).isEqualTo(1);
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                  .interrupt();
+        }
+    }
+
+}
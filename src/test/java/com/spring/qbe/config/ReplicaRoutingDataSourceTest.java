@@ -0,0 +1,135 @@
+package com.spring.qbe.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class ReplicaRoutingDataSourceTest {
+
+    private final DataSource primary = mock(DataSource.class);
+    private final DataSource replica = mock(DataSource.class);
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        ReadYourWrites.end();
+    }
+
+    @DisplayName("Should route read-only transactions to a usable replica")
+    @Test
+    void shouldRouteReadOnlyToReplica() {
+        // given
+        ReplicaRoutingDataSource routing = routing(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // when
+        Object key = routing.determineCurrentLookupKey();
+
+        // then
+        assertThat(key).isEqualTo(0);
+    }
+
+    @DisplayName("Should route writes to the primary")
+    @Test
+    void shouldRouteWritesToPrimary() {
+        // given
+        ReplicaRoutingDataSource routing = routing(true);
+
+        // when
+        Object key = routing.determineCurrentLookupKey();
+
+        // then
+        assertThat(key).isEqualTo(ReplicaRoutingDataSource.PRIMARY);
+    }
+
+    @DisplayName("Should keep reads on the primary after a committed write")
+    @Test
+    void shouldStickToPrimaryAfterWrite() {
+        // given
+        ReplicaRoutingDataSource routing = routing(true);
+        long[] cookie = new long[1];
+        ReadYourWrites.begin(0, primaryUntil -> cookie[0] = primaryUntil);
+        TransactionSynchronizationManager.initSynchronization();
+        routing.determineCurrentLookupKey();
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        TransactionSynchronizationManager.clearSynchronization();
+
+        // when
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        Object key = routing.determineCurrentLookupKey();
+
+        // then
+        assertThat(synchronizations).hasSize(1);
+        assertThat(key).isEqualTo(ReplicaRoutingDataSource.PRIMARY);
+        assertThat(cookie[0]).isGreaterThan(System.currentTimeMillis());
+    }
+
+    @DisplayName("Should route read-only transactions pinned to the primary there")
+    @Test
+    void shouldRoutePinnedReadsToPrimary() {
+        // given
+        ReplicaRoutingDataSource routing = routing(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // when
+        Object key = PrimaryReads.on(routing::determineCurrentLookupKey);
+
+        // then
+        assertThat(key).isEqualTo(ReplicaRoutingDataSource.PRIMARY);
+        assertThat(routing.determineCurrentLookupKey()).isEqualTo(0);
+    }
+
+    @DisplayName("Should carry a request's stickiness to work run outside it")
+    @Test
+    void shouldCarryStickinessOutsideRequest() {
+        // given
+        ReplicaRoutingDataSource routing = routing(true);
+        ReadYourWrites.begin(System.currentTimeMillis() + 60_000, primaryUntil -> {
+        });
+        ReadRouting captured = ReadRouting.capture();
+        ReadYourWrites.end();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // when
+        Object key = captured.on(routing::determineCurrentLookupKey);
+
+        // then
+        assertThat(key).isEqualTo(ReplicaRoutingDataSource.PRIMARY);
+        assertThat(routing.determineCurrentLookupKey()).isEqualTo(0);
+    }
+
+    @DisplayName("Should fall back to the primary when no replica is usable")
+    @Test
+    void shouldFallBackToPrimary() {
+        // given
+        ReplicaRoutingDataSource routing = routing(false);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // when
+        Object key = routing.determineCurrentLookupKey();
+
+        // then
+        assertThat(key).isEqualTo(ReplicaRoutingDataSource.PRIMARY);
+    }
+
+    private ReplicaRoutingDataSource routing(boolean replicaUsable) {
+        ReplicaRoutingProperties properties = new ReplicaRoutingProperties(true, List.of(), ReplicaRoutingProperties.Balancing.ROUND_ROBIN,
+            Duration.ofSeconds(5), Duration.ofSeconds(1), Duration.ofSeconds(5));
+        return new ReplicaRoutingDataSource(primary, List.of(replica), properties, index -> replicaUsable);
+    }
+
+}
@@ -0,0 +1,185 @@
+package com.spring.qbe.employee;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.ExampleMatcher;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CompiledExampleQueryTest {
+
+    @DisplayName("Should give probes with the same populated fields the same shape")
+    @Test
+    void shouldShareShapeAcrossValues() {
+        // given
+        Example<Employee> itDevelopers = Example.of(Employee.builder()
+                                                            .department("IT")
+                                                            .position("Developer")
+                                                            .build());
+        Example<Employee> hrManagers = Example.of(Employee.builder()
+                                                          .department("HR")
+                                                          .position("Manager")
+                                                          .build());
+
+        // when
+        NormalizedProbe first = NormalizedProbe.of(itDevelopers);
+        NormalizedProbe second = NormalizedProbe.of(hrManagers);
+
+        // then
+        assertThat(first.shape()).isEqualTo(second.shape());
+        assertThat(first).isNotEqualTo(second);
+        assertThat(first.values()).containsExactly("IT", "Developer");
+    }
+
+    @DisplayName("Should distinguish shapes by matcher settings")
+    @Test
+    void shouldDistinguishShapesByMatcher() {
+        // given
+        Employee probe = Employee.builder()
+                                 .department("eng")
+                                 .build();
+        ExampleMatcher containing = ExampleMatcher.matching()
+                                                  .withMatcher("department", ExampleMatcher.GenericPropertyMatcher::contains);
+
+        // when
+        ProbeShape exact = NormalizedProbe.of(Example.of(probe))
+                                          .shape();
+        ProbeShape contains = NormalizedProbe.of(Example.of(probe, containing))
+                                             .shape();
+
+        // then
+        assertThat(exact).isNotEqualTo(contains);
+    }
+
+    @DisplayName("Should compile parameterized JPQL for exact, like and ignore-case conditions")
+    @Test
+    void shouldCompileParameterizedJpql() {
+        // given
+        Employee probe = Employee.builder()
+                                 .firstName("John")
+                                 .department("eng")
+                                 .salary(new BigDecimal("95000.00"))
+                                 .build();
+        ExampleMatcher matcher = ExampleMatcher.matching()
+                                               .withMatcher("firstName", ExampleMatcher.GenericPropertyMatcher::ignoreCase)
+                                               .withMatcher("department", ExampleMatcher.GenericPropertyMatcher::contains);
+
+        // when
+        NormalizedProbe normalized = NormalizedProbe.of(Example.of(probe, matcher));
+        CompiledExampleQuery query = CompiledExampleQuery.compile(normalized.shape());
+
+        // then
+        assertThat(query.selectJpql())
+            .isEqualTo("select e from employees e where e.firstNameFolded = ?1"
+                + " and e.department like ?2 escape '!' and e.salary = ?3");
+        assertThat(query.countJpql()).startsWith("select count(e) from employees e where ");
+        assertThat(normalized.values()).containsExactly("john", "eng", new BigDecimal("95000.00"));
+    }
+
+    @DisplayName("Should render the native SQL explained for a shape with its parameters in placeholder order")
+    @Test
+    void shouldRenderExplainableSql() {
+        // given
+        Employee probe = Employee.builder()
+                                 .firstName("John")
+                                 .department("eng")
+                                 .salary(new BigDecimal("95000.00"))
+                                 .build();
+        ExampleMatcher matcher = ExampleMatcher.matching()
+                                               .withMatcher("firstName", ExampleMatcher.GenericPropertyMatcher::ignoreCase)
+                                               .withMatcher("department", ExampleMatcher.GenericPropertyMatcher::contains);
+
+        // when
+        NormalizedProbe normalized = NormalizedProbe.of(Example.of(probe, matcher));
+        CompiledExampleQuery query = CompiledExampleQuery.compile(normalized.shape());
+
+        // then
+        assertThat(query.selectSql())
+            .isEqualTo("select e.* from employees e where e.first_name_folded = ?"
+                + " and e.department like ? escape '!' and e.salary = ?");
+        assertThat(query.keysetSelectSql())
+            .isEqualTo("select e.* from employees e where (e.first_name_folded = ?"
+                + " and e.department like ? escape '!' and e.salary = ?) and e.id > ? order by e.id limit ?");
+        assertThat(query.parameters(normalized)).containsExactly("john", "%eng%", new BigDecimal("95000.00"));
+    }
+
+    @DisplayName("Should add range bounds next to the example predicate")
+    @Test
+    void shouldCompileRangeBounds() {
+        // given
+        ExampleMatcher anyMatching = ExampleMatcher.matchingAny();
+        NormalizedProbe normalized = NormalizedProbe.of(Example.of(Employee.builder()
+                                                                           .department("IT")
+                                                                           .position("Developer")
+                                                                           .build(), anyMatching))
+                                                    .withRanges(List.of(EmployeeRange.parse("salary:80000..100000")));
+
+        // when
+        CompiledExampleQuery query = CompiledExampleQuery.compile(normalized.shape());
+
+        // then
+        assertThat(query.selectJpql())
+            .isEqualTo("select e from employees e where (e.department = ?1 or e.position = ?2)"
+                + " and e.salary >= ?3 and e.salary <= ?4");
+        assertThat(normalized.values()).containsExactly("IT", "Developer", new BigDecimal("80000"), new BigDecimal("100000"));
+        assertThat(normalized.matches(Employee.builder()
+                                              .department("IT")
+                                              .salary(new BigDecimal("90000.00"))
+                                              .build())).isTrue();
+        assertThat(normalized.matches(Employee.builder()
+                                              .department("IT")
+                                              .salary(new BigDecimal("100000.01"))
+                                              .build())).isFalse();
+    }
+
+    @DisplayName("Should compile an unconstrained probe without a where clause")
+    @Test
+    void shouldCompileUnconstrainedProbe() {
+        // when
+        CompiledExampleQuery query = CompiledExampleQuery.compile(NormalizedProbe.of(Example.of(new Employee()))
+                                                                                 .shape());
+
+        // then
+        assertThat(query.selectJpql()).isEqualTo("select e from employees e");
+    }
+
+    @DisplayName("Should evaluate probes in memory like a case-insensitive collation")
+    @Test
+    void shouldMatchInMemory() {
+        // given
+        NormalizedProbe itDevelopers = NormalizedProbe.of(Example.of(Employee.builder()
+                                                                             .department("IT")
+                                                                             .position("Developer")
+                                                                             .build()));
+
+        // then
+        assertThat(itDevelopers.matches(Employee.builder()
+                                                .department("it")
+                                                .position("Developer")
+                                                .build())).isTrue();
+        assertThat(itDevelopers.matches(Employee.builder()
+                                                .department("IT")
+                                                .position("Senior Developer")
+                                                .build())).isFalse();
+    }
+
+    @DisplayName("Should reject regex matchers like Spring Data JPA does")
+    @Test
+    void shouldRejectRegexMatcher() {
+        // given
+        ExampleMatcher regex = ExampleMatcher.matching()
+                                             .withStringMatcher(ExampleMatcher.StringMatcher.REGEX);
+
+        // then
+        assertThatThrownBy(() -> NormalizedProbe.of(Example.of(Employee.builder()
+                                                                       .firstName("J.*")
+                                                                       .build(), regex)))
+            .isInstanceOf(UnsupportedOperationException.class);
+    }
+
+}
@@ -0,0 +1,132 @@
+package com.spring.qbe.employee;
+
+import com.spring.qbe.config.ShardingProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class EmployeeAggregatesTest {
+
+    private final EmployeeRepository employeeRepository = mock(EmployeeRepository.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+
+    private EmployeeAggregates aggregates;
+
+    @BeforeEach
+    void setUp() {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(employeeRepository.streamSalaryRows()).thenAnswer(invocation -> Stream.of(
+            new Object[]{1L, "IT", "Developer", new BigDecimal("75000.00")},
+            new Object[]{2L, "IT", "Developer", new BigDecimal("72000.00")},
+            new Object[]{4L, "HR", "Manager", new BigDecimal("85000.00")}
+        ));
+        aggregates = newAggregates();
+        aggregates.load();
+    }
+
+    @DisplayName("Should summarize each department and position group")
+    @Test
+    void shouldSummarizeGroups() {
+        // when
+        List<EmployeeAggregate> result = aggregates.aggregates(null);
+
+        // then
+        assertThat(result)
+            .extracting(EmployeeAggregate::department, EmployeeAggregate::headcount, EmployeeAggregate::salaryAvg)
+            .containsExactly(
+                tuple("HR", 1L, new BigDecimal("85000.00")),
+                tuple("IT", 2L, new BigDecimal("73500.00")));
+    }
+
+    @DisplayName("Should keep min and max exact when rows move between groups")
+    @Test
+    void shouldApplyChangesIncrementally() {
+        // given
+        Employee before = employee(1L, "IT", "Developer", "75000.00");
+        Employee after = employee(1L, "HR", "Manager", "90000.00");
+
+        // when
+        aggregates.onEmployeeChanged(new EmployeeChangedEvent(before, after));
+        aggregates.onEmployeeChanged(new EmployeeChangedEvent(null, employee(5L, "it", "Developer", null)));
+
+        // then
+        EmployeeAggregate developers = aggregates.aggregates("it")
+                                                 .get(0);
+        assertThat(developers.headcount()).isEqualTo(2);
+        assertThat(developers.salaryMax()).isEqualByComparingTo("72000.00");
+        assertThat(developers.salarySum()).isEqualByComparingTo("72000.00");
+        EmployeeAggregate managers = aggregates.aggregates("HR")
+                                               .get(0);
+        assertThat(managers.headcount()).isEqualTo(2);
+        assertThat(managers.salaryMin()).isEqualByComparingTo("85000.00");
+        assertThat(managers.salaryMax()).isEqualByComparingTo("90000.00");
+    }
+
+    @DisplayName("Should drop a group when its last employee is deleted")
+    @Test
+    void shouldDropEmptyGroups() {
+        // when
+        aggregates.onEmployeeChanged(new EmployeeChangedEvent(employee(4L, "HR", "Manager", "85000.00"), null));
+
+        // then
+        assertThat(aggregates.aggregates("HR")).isEmpty();
+    }
+
+    @DisplayName("Should count writes committed during a load exactly once")
+    @Test
+    void shouldReplayWritesCommittedDuringLoad() {
+        // given
+        EmployeeAggregates loading = newAggregates();
+        Employee seen = employee(7L, "HR", "Manager", "95000.00");
+        Employee unseen = employee(8L, "HR", "Manager", "65000.00");
+        when(employeeRepository.streamSalaryRows()).thenAnswer(invocation -> {
+            loading.onEmployeeChanged(new EmployeeChangedEvent(null, seen));
+            loading.onEmployeeChanged(new EmployeeChangedEvent(null, unseen));
+            loading.onEmployeeChanged(new EmployeeChangedEvent(employee(2L, "IT", "Developer", "72000.00"), null));
+            return Stream.<Object[]>of(
+                new Object[]{1L, "IT", "Developer", new BigDecimal("75000.00")},
+                new Object[]{2L, "IT", "Developer", new BigDecimal("72000.00")},
+                new Object[]{4L, "HR", "Manager", new BigDecimal("85000.00")},
+                new Object[]{7L, "HR", "Manager", new BigDecimal("95000.00")});
+        });
+
+        // when
+        loading.load();
+
+        // then
+        assertThat(loading.aggregates(null))
+            .extracting(EmployeeAggregate::department, EmployeeAggregate::headcount, EmployeeAggregate::salaryMin, EmployeeAggregate::salaryMax)
+            .containsExactly(
+                tuple("HR", 3L, new BigDecimal("65000.00"), new BigDecimal("95000.00")),
+                tuple("IT", 1L, new BigDecimal("75000.00"), new BigDecimal("75000.00")));
+    }
+
+    private EmployeeAggregates newAggregates() {
+        return new EmployeeAggregates(employeeRepository, new EmployeeShards(new ShardingProperties(false, List.of(), 1), transactionManager, mock(JdbcTemplate.class)),
+            new AggregatesProperties(Duration.ZERO), transactionManager);
+    }
+
+    private static Employee employee(Long id, String department, String position, String salary) {
+        return Employee.builder()
+                       .id(id)
+                       .department(department)
+                       .position(position)
+                       .salary(salary == null ? null : new BigDecimal(salary))
+                       .build();
+    }
+
+}
@@ -0,0 +1,76 @@
+package com.spring.qbe.employee;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EmployeeBinaryCodecTest {
+
+    @DisplayName("Should round-trip employees including missing fields, non-ASCII names and large salaries")
+    @Test
+    void shouldRoundTripEmployees() throws IOException {
+        // given
+        List<Employee> employees = List.of(Employee.builder()
+                                                   .id(1L)
+                                                   .firstName("John")
+                                                   .lastName("Doe")
+                                                   .department("IT")
+                                                   .position("Developer")
+                                                   .salary(new BigDecimal("75000.50"))
+                                                   .build(),
+            Employee.builder()
+                    .id(2L)
+                    .firstName("Zoë 😀")
+                    .lastName("김")
+                    .salary(new BigDecimal("123456789012345678901234567890.12"))
+                    .build(),
+            Employee.builder()
+                    .department("HR")
+                    .build());
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        // when
+        EmployeeBinaryCodec.writeAll(employees, outputStream);
+        List<Employee> decoded = EmployeeBinaryCodec.readAll(outputStream.toByteArray());
+
+        // then
+        assertThat(decoded).usingRecursiveFieldByFieldElementComparator()
+                           .containsExactlyElementsOf(employees);
+    }
+
+    @DisplayName("Should reject truncated input")
+    @Test
+    void shouldRejectTruncatedInput() throws IOException {
+        // given
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        EmployeeBinaryCodec.write(Employee.builder()
+                                          .firstName("John")
+                                          .build(), outputStream);
+        byte[] bytes = outputStream.toByteArray();
+        byte[] truncated = Arrays.copyOf(bytes, bytes.length - 1);
+
+        // then
+        assertThatThrownBy(() -> EmployeeBinaryCodec.read(truncated)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @DisplayName("Should reject a salary scale out of range")
+    @Test
+    void shouldRejectOutOfRangeScale() {
+        // given
+        // salary present, scale 2^31 as a zigzag varint, unscaled value 0
+        byte[] bytes = {0x20, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0x10, 0x00};
+
+        // then
+        assertThatThrownBy(() -> EmployeeBinaryCodec.read(bytes)).isInstanceOf(IllegalArgumentException.class)
+                                                                 .hasMessageContaining("scale");
+    }
+
+}
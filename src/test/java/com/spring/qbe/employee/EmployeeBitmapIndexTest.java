@@ -0,0 +1,293 @@
+package com.spring.qbe.employee;
+
+import com.spring.qbe.config.ShardingProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.ExampleMatcher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class EmployeeBitmapIndexTest {
+
+    private EmployeeBitmapIndex bitmapIndex;
+
+    @BeforeEach
+    void setUp() {
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        bitmapIndex = new EmployeeBitmapIndex(new BitmapIndexProperties(true, Duration.ZERO), mock(EmployeeRepository.class),
+            new EmployeeShards(new ShardingProperties(false, List.of(), 1), transactionManager, mock(JdbcTemplate.class)), mock(EmployeeTableVersion.class),
+            transactionManager);
+        bitmapIndex.load(Map.of(Employee.CACHE_REGION, 3L), () -> Stream.of(
+            employee(1L, "Jane", "Doe", "IT", "Developer", "75000.00"),
+            employee(2L, "Mike", "Johnson", "IT", "Developer", "72000.00"),
+            employee(3L, "John", "Smith", "IT", "Senior Developer", "95000.00"),
+            employee(4L, "Robert", "Brown", "HR", "Manager", "85000.00")
+        ));
+    }
+
+    @DisplayName("Should answer exact-match probes by bitmap intersection")
+    @Test
+    void shouldAnswerExactMatchProbes() {
+        // given
+        Example<Employee> itDevelopers = Example.of(Employee.builder()
+                                                            .department("IT")
+                                                            .position("Developer")
+                                                            .build());
+
+        // when
+        EmployeeBitmapIndex.Selection selection = bitmapIndex.select(itDevelopers)
+                                                             .orElseThrow();
+
+        // then
+        assertThat(selection.count()).isEqualTo(2);
+        assertThat(selection.exists()).isTrue();
+        assertThat(selection.employees())
+            .extracting(Employee::getFirstName)
+            .containsExactly("Jane", "Mike");
+    }
+
+    @DisplayName("Should compare values case-insensitively like the database collation")
+    @Test
+    void shouldFoldCase() {
+        // when
+        long count = bitmapIndex.select(Example.of(Employee.builder()
+                                                           .department("it")
+                                                           .build()))
+                                .orElseThrow()
+                                .count();
+
+        // then
+        assertThat(count).isEqualTo(3);
+    }
+
+    @DisplayName("Should match salary and id conditions")
+    @Test
+    void shouldMatchNonStringAttributes() {
+        // when
+        EmployeeBitmapIndex.Selection bySalary = bitmapIndex.select(Example.of(Employee.builder()
+                                                                                       .salary(new BigDecimal("95000"))
+                                                                                       .build()))
+                                                            .orElseThrow();
+        EmployeeBitmapIndex.Selection byId = bitmapIndex.select(Example.of(Employee.builder()
+                                                                                   .id(4L)
+                                                                                   .build()))
+                                                        .orElseThrow();
+
+        // then
+        assertThat(bySalary.one()).map(Employee::getLastName)
+                                  .contains("Smith");
+        assertThat(byId.one()).map(Employee::getSalary)
+                              .contains(new BigDecimal("85000.00"));
+    }
+
+    @DisplayName("Should store salaries rounded like the column, match only probes it can hold and follow salary changes")
+    @Test
+    void shouldRoundSalariesLikeColumn() {
+        // given
+        bitmapIndex.onEmployeeChanged(new EmployeeChangedEvent(null, employee(5L, "Kevin", "Lee", "HR", "Manager", "88000.005")));
+        bitmapIndex.onEmployeeChanged(new EmployeeChangedEvent(null, employee(6L, "Laura", "White", "HR", "Manager", "88000.01")));
+
+        // when
+        long rounded = bitmapIndex.select(Example.of(Employee.builder()
+                                                             .salary(new BigDecimal("88000.010"))
+                                                             .build()))
+                                  .orElseThrow()
+                                  .count();
+        long unrepresentable = bitmapIndex.select(Example.of(Employee.builder()
+                                                                     .salary(new BigDecimal("88000.005"))
+                                                                     .build()))
+                                          .orElseThrow()
+                                          .count();
+        bitmapIndex.onEmployeeChanged(new EmployeeChangedEvent(
+            employee(6L, "Laura", "White", "HR", "Manager", "88000.01"), employee(6L, "Laura", "White", "HR", "Manager", "88000.00")));
+        long afterChange = bitmapIndex.select(Example.of(Employee.builder()
+                                                                .salary(new BigDecimal("88000.01"))
+                                                                .build()))
+                                     .orElseThrow()
+                                     .count();
+
+        // then
+        assertThat(rounded).isEqualTo(2);
+        assertThat(unrepresentable).isZero();
+        assertThat(afterChange).isEqualTo(1);
+    }
+
+    @DisplayName("Should page through a selection in id order whatever order rows were added in")
+    @Test
+    void shouldPageInIdOrder() {
+        // given
+        bitmapIndex.onEmployeeChanged(new EmployeeChangedEvent(null, employee(9L, "Kevin", "Lee", "IT", "Developer", "88000.00")));
+        bitmapIndex.onEmployeeChanged(new EmployeeChangedEvent(null, employee(6L, "Laura", "White", "IT", "Developer", "81000.00")));
+        EmployeeBitmapIndex.Selection everyone = bitmapIndex.select(Example.of(new Employee()))
+                                                            .orElseThrow();
+        EmployeeBitmapIndex.Selection developers = bitmapIndex.select(Example.of(Employee.builder()
+                                                                                         .position("Developer")
+                                                                                         .build()))
+                                                              .orElseThrow();
+
+        // when
+        List<Employee> firstPage = everyone.page(Long.MIN_VALUE, 3);
+        List<Employee> nextPage = everyone.page(3L, 3);
+        List<Employee> developerPage = developers.page(1L, 2);
+
+        // then
+        assertThat(firstPage).extracting(Employee::getId)
+                             .containsExactly(1L, 2L, 3L);
+        assertThat(nextPage).extracting(Employee::getId)
+                            .containsExactly(4L, 6L, 9L);
+        assertThat(developerPage).extracting(Employee::getId)
+                                 .containsExactly(2L, 6L);
+    }
+
+    @DisplayName("Should follow inserts, updates and deletes")
+    @Test
+    void shouldFollowWrites() {
+        // given
+        Example<Employee> hrManagers = Example.of(Employee.builder()
+                                                          .department("HR")
+                                                          .position("Manager")
+                                                          .build());
+        Employee promoted = employee(2L, "Mike", "Johnson", "HR", "Manager", "90000.00");
+
+        // when
+        bitmapIndex.onEmployeeChanged(new EmployeeChangedEvent(
+            employee(2L, "Mike", "Johnson", "IT", "Developer", "72000.00"), promoted));
+        bitmapIndex.onEmployeeChanged(new EmployeeChangedEvent(
+            null, employee(5L, "Kevin", "Lee", "HR", "Manager", "88000.00")));
+        bitmapIndex.onEmployeeChanged(new EmployeeChangedEvent(
+            employee(4L, "Robert", "Brown", "HR", "Manager", "85000.00"), null));
+
+        // then
+        assertThat(bitmapIndex.select(hrManagers)
+                              .orElseThrow()
+                              .employees())
+            .extracting(Employee::getId)
+            .containsExactly(2L, 5L);
+        assertThat(bitmapIndex.select(Example.of(Employee.builder()
+                                                         .position("Developer")
+                                                         .build()))
+                              .orElseThrow()
+                              .count()).isEqualTo(1);
+    }
+
+    @DisplayName("Should keep writes committed while the copy is rebuilt")
+    @Test
+    void shouldKeepWritesCommittedDuringReload() {
+        // given
+        Example<Employee> hrManagers = Example.of(Employee.builder()
+                                                          .department("HR")
+                                                          .position("Manager")
+                                                          .build());
+        Employee robert = employee(4L, "Robert", "Brown", "HR", "Manager", "85000.00");
+        Employee kevin = employee(5L, "Kevin", "Lee", "HR", "Manager", "88000.00");
+
+        // when
+        bitmapIndex.load(Map.of(), () -> {
+            Stream<Employee> readBeforeWrites = Stream.of(employee(1L, "Jane", "Doe", "IT", "Developer", "75000.00"), robert);
+            bitmapIndex.onEmployeeChanged(new EmployeeChangedEvent(null, kevin));
+            bitmapIndex.onEmployeeChanged(new EmployeeChangedEvent(robert, null));
+            return readBeforeWrites;
+        });
+
+        // then
+        assertThat(bitmapIndex.select(hrManagers)
+                              .orElseThrow()
+                              .employees())
+            .extracting(Employee::getId)
+            .containsExactly(5L);
+    }
+
+    @DisplayName("Should answer substring matchers through the trigram index")
+    @Test
+    void shouldAnswerSubstringMatchers() {
+        // given
+        Example<Employee> containing = Example.of(Employee.builder()
+                                                          .position("VELOP")
+                                                          .build(), ExampleMatcher.matching()
+                                                                                  .withStringMatcher(ExampleMatcher.StringMatcher.CONTAINING));
+        Example<Employee> starting = Example.of(Employee.builder()
+                                                        .position("Senior")
+                                                        .build(), ExampleMatcher.matching()
+                                                                                .withStringMatcher(ExampleMatcher.StringMatcher.STARTING));
+        Example<Employee> ending = Example.of(Employee.builder()
+                                                      .lastName("son")
+                                                      .build(), ExampleMatcher.matching()
+                                                                              .withStringMatcher(ExampleMatcher.StringMatcher.ENDING));
+
+        // then
+        assertThat(bitmapIndex.select(containing)
+                              .orElseThrow()
+                              .employees())
+            .extracting(Employee::getId)
+            .containsExactly(1L, 2L, 3L);
+        assertThat(bitmapIndex.select(starting)
+                              .orElseThrow()
+                              .employees())
+            .extracting(Employee::getId)
+            .containsExactly(3L);
+        assertThat(bitmapIndex.select(ending)
+                              .orElseThrow()
+                              .employees())
+            .extracting(Employee::getId)
+            .containsExactly(2L);
+    }
+
+    @DisplayName("Should leave substring terms shorter than a trigram to the database")
+    @Test
+    void shouldRejectNonExactMatchers() {
+        // given
+        ExampleMatcher containing = ExampleMatcher.matching()
+                                                  .withStringMatcher(ExampleMatcher.StringMatcher.CONTAINING);
+
+        // then
+        assertThat(bitmapIndex.select(Example.of(Employee.builder()
+                                                         .department("T")
+                                                         .build(), containing))).isEmpty();
+    }
+
+    @DisplayName("Should label answers with the counters the copy applied, advanced only by contiguous bumps")
+    @Test
+    void shouldLabelAnswersWithAppliedCounters() {
+        // given
+        Example<Employee> it = Example.of(Employee.builder()
+                                                  .department("IT")
+                                                  .build());
+
+        // when
+        bitmapIndex.onEmployeeVersionBumped(new EmployeeVersionBumpedEvent(Map.of(Employee.CACHE_REGION, 4L)));
+        AnswerVersions.Versioned<Long> afterOwnWrite = AnswerVersions.collect(() -> bitmapIndex.select(it)
+                                                                                               .orElseThrow()
+                                                                                               .count());
+        bitmapIndex.onEmployeeVersionBumped(new EmployeeVersionBumpedEvent(Map.of(Employee.CACHE_REGION, 6L)));
+        AnswerVersions.Versioned<Long> afterMissedWrite = AnswerVersions.collect(() -> bitmapIndex.select(it)
+                                                                                                  .orElseThrow()
+                                                                                                  .count());
+
+        // then
+        assertThat(afterOwnWrite.versions()).containsExactly(Map.entry(Employee.CACHE_REGION, 4L));
+        assertThat(afterMissedWrite.versions()).containsExactly(Map.entry(Employee.CACHE_REGION, 4L));
+    }
+
+    private static Employee employee(Long id, String firstName, String lastName, String department, String position, String salary) {
+        return Employee.builder()
+                       .id(id)
+                       .firstName(firstName)
+                       .lastName(lastName)
+                       .department(department)
+                       .position(position)
+                       .salary(new BigDecimal(salary))
+                       .build();
+    }
+
+}
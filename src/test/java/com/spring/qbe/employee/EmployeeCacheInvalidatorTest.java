@@ -0,0 +1,92 @@
+package com.spring.qbe.employee;
+
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class EmployeeCacheInvalidatorTest {
+
+    @Mock
+    private EmployeeTableVersion tableVersion;
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    @Mock
+    private Cache entityCache;
+
+    @Mock
+    private SessionFactory sessionFactory;
+
+    @Mock
+    private org.hibernate.Cache regionCache;
+
+    private EmployeeCacheInvalidator invalidator;
+
+    @BeforeEach
+    void setUp() {
+        invalidator = new EmployeeCacheInvalidator(new SecondLevelCacheProperties(true, Duration.ofHours(1)), tableVersion,
+            entityManagerFactory);
+        when(tableVersion.counters()).thenReturn(Map.of(Employee.CACHE_REGION, 0L));
+        invalidator.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        invalidator.close();
+    }
+
+    @DisplayName("Should not evict for a write made through this node")
+    @Test
+    void shouldNotEvictOwnWrite() {
+        // given
+        when(tableVersion.counters()).thenReturn(Map.of(Employee.CACHE_REGION, 1L));
+
+        // when
+        invalidator.onEmployeeVersionBumped(new EmployeeVersionBumpedEvent(Map.of(Employee.CACHE_REGION, 1L)));
+        invalidator.poll();
+
+        // then
+        verify(entityManagerFactory, never()).getCache();
+    }
+
+    @DisplayName("Should evict entity and query regions when another node wrote")
+    @Test
+    void shouldEvictWhenAnotherNodeWrote() {
+        // given
+        when(entityManagerFactory.getCache()).thenReturn(entityCache);
+        when(entityManagerFactory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+        when(sessionFactory.getCache()).thenReturn(regionCache);
+        when(tableVersion.counters()).thenReturn(Map.of(Employee.CACHE_REGION, 1L));
+
+        // when
+        invalidator.poll();
+
+        // then
+        InOrder order = inOrder(entityCache, regionCache, tableVersion);
+        order.verify(entityCache)
+             .evict(Employee.class);
+        order.verify(regionCache)
+             .evictQueryRegion(Employee.QUERY_CACHE_REGION);
+        order.verify(tableVersion)
+             .advance(Map.of(Employee.CACHE_REGION, 1L));
+    }
+
+}
@@ -8,8 +8,13 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 import org.testcontainers.containers.MySQLContainer;
 import org.testcontainers.junit.jupiter.Container;
@@ -20,11 +25,23 @@ import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.hasKey;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -47,6 +64,12 @@ class EmployeeControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private EmployeeTableVersion tableVersion;
+
     private Employee sampleEmployee;
     private List<Employee> employeeList;
 
@@ -76,8 +99,8 @@ class EmployeeControllerTest {
     @Test
     void searchEmployees_WithValidParameters_ReturnsEmployeeList() throws Exception {
         // given
-        when(employeeService.findEmployeesWithCustomMatcher("John", "IT"))
-            .thenReturn(Collections.singletonList(sampleEmployee));
+        when(employeeService.findEmployeesWithCustomMatcher(eq("John"), eq("IT"), any(ScrollPosition.class), eq(100)))
+            .thenReturn(Window.from(Collections.singletonList(sampleEmployee), ScrollPosition::offset));
 
         // when
         ResultActions result = mockMvc.perform(get("/api/employees/search")
@@ -99,8 +122,8 @@ class EmployeeControllerTest {
     @Test
     void searchEmployees_WithNoParameters_ReturnsAllEmployees() throws Exception {
         // given
-        when(employeeService.findEmployeesWithCustomMatcher(null, null))
-            .thenReturn(employeeList);
+        when(employeeService.findEmployeesWithCustomMatcher(isNull(), isNull(), any(ScrollPosition.class), anyInt()))
+            .thenReturn(Window.from(employeeList, ScrollPosition::offset));
 
         // when
         ResultActions result = mockMvc.perform(get("/api/employees/search")
@@ -115,11 +138,55 @@ class EmployeeControllerTest {
               .andExpect(jsonPath("$[1].firstName").value("Jane"));
     }
 
+    @Test
+    void explainByExample_ReturnsPlanOfProbe() throws Exception {
+        // given
+        when(employeeService.explainEmployeesByExample(any(Employee.class), eq(List.of()), eq(100)))
+            .thenReturn(new ProbePlan("department:equals", ProbeStatement.page(101),
+                "select e.* from employees e where (e.department = ?) and e.id > ? order by e.id limit ?",
+                List.of(Map.of("type", "ref", "key", "idx_employees_department_position_salary", "rows", 3)), 3,
+                List.of("idx_employees_department_position_salary"), false));
+        Employee searchExample = Employee.builder()
+                                         .department("IT")
+                                         .build();
+
+        // when
+        ResultActions result = mockMvc.perform(post("/api/employees/search/example/explain")
+            .content(objectMapper.writeValueAsString(searchExample))
+            .contentType(MediaType.APPLICATION_JSON));
+
+        // then
+        result.andExpect(status().isOk())
+              .andExpect(jsonPath("$.statement.kind").value("PAGE"))
+              .andExpect(jsonPath("$.statement.limit").value(101))
+              .andExpect(jsonPath("$.sql").value("select e.* from employees e where (e.department = ?) and e.id > ? order by e.id limit ?"))
+              .andExpect(jsonPath("$.estimatedRows").value(3))
+              .andExpect(jsonPath("$.indexes[0]").value("idx_employees_department_position_salary"))
+              .andExpect(jsonPath("$.fullScan").value(false));
+    }
+
+    @Test
+    void countByExample_WhenProbeIsRejected_ReturnsUnprocessableEntity() throws Exception {
+        // given
+        when(employeeService.countEmployeesByExample(any(Employee.class)))
+            .thenThrow(new ProbeRejectedException("Probe lastName:equals needs a full scan"));
+
+        // when
+        ResultActions result = mockMvc.perform(post("/api/employees/count")
+            .content(objectMapper.writeValueAsString(Employee.builder()
+                                                             .lastName("Smith")
+                                                             .build()))
+            .contentType(MediaType.APPLICATION_JSON));
+
+        // then
+        result.andExpect(status().isUnprocessableEntity());
+    }
+
     @Test
     void findByExample_WithValidEmployee_ReturnsMatchingEmployees() throws Exception {
         // given
-        when(employeeService.findEmployeesByExample(any(Employee.class)))
-            .thenReturn(Collections.singletonList(sampleEmployee));
+        when(employeeService.findEmployeesByExample(any(Employee.class), any(ScrollPosition.class), anyInt()))
+            .thenReturn(Window.from(Collections.singletonList(sampleEmployee), ScrollPosition::offset));
         Employee searchExample = Employee.builder()
                                          .department("IT")
                                          .position("Software Engineer")
@@ -138,6 +205,195 @@ class EmployeeControllerTest {
               .andExpect(jsonPath("$[0].department").value("IT"));
     }
 
+    @Test
+    void findByExample_WithBinaryAccept_ReturnsBinaryEncodedEmployees() throws Exception {
+        // given
+        when(employeeService.findEmployeesByExample(any(Employee.class), any(ScrollPosition.class), anyInt()))
+            .thenReturn(Window.from(employeeList, ScrollPosition::offset));
+
+        // when
+        MvcResult result = mockMvc.perform(post("/api/employees/search/example")
+                                      .content("{\"department\":\"IT\"}")
+                                      .contentType(MediaType.APPLICATION_JSON)
+                                      .accept(EmployeeBinaryCodec.MEDIA_TYPE))
+                                  .andExpect(status().isOk())
+                                  .andExpect(content().contentType(EmployeeBinaryCodec.MEDIA_TYPE))
+                                  .andReturn();
+
+        // then
+        List<Employee> decoded = EmployeeBinaryCodec.readAll(result.getResponse()
+                                                                   .getContentAsByteArray());
+        assertThat(decoded).extracting(Employee::getFirstName)
+                           .containsExactly("John", "Jane");
+    }
+
+    @Test
+    void findByExample_WithMoreResults_ReturnsNextCursorHeader() throws Exception {
+        // given
+        when(employeeService.findEmployeesByExample(any(Employee.class), any(ScrollPosition.class), eq(2)))
+            .thenReturn(Window.from(employeeList, ScrollPosition::offset, true));
+        Employee searchExample = Employee.builder()
+                                         .department("IT")
+                                         .build();
+
+        // when
+        ResultActions result = mockMvc.perform(post("/api/employees/search/example")
+            .param("size", "2")
+            .content(objectMapper.writeValueAsString(searchExample))
+            .contentType(MediaType.APPLICATION_JSON));
+
+        // then
+        result.andExpect(status().isOk())
+              .andExpect(jsonPath("$", hasSize(2)))
+              .andExpect(header().string(EmployeeController.NEXT_CURSOR_HEADER, EmployeeCursor.encode(2L)));
+    }
+
+    @Test
+    void findByExample_WithLastPage_OmitsNextCursorHeader() throws Exception {
+        // given
+        when(employeeService.findEmployeesByExample(any(Employee.class), any(ScrollPosition.class), anyInt()))
+            .thenReturn(Window.from(employeeList, ScrollPosition::offset, false));
+
+        // when
+        ResultActions result = mockMvc.perform(post("/api/employees/search/example")
+            .param("cursor", EmployeeCursor.encode(1L))
+            .content(objectMapper.writeValueAsString(Employee.builder()
+                                                             .department("IT")
+                                                             .build()))
+            .contentType(MediaType.APPLICATION_JSON));
+
+        // then
+        result.andExpect(status().isOk())
+              .andExpect(header().doesNotExist(EmployeeController.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void findByExample_WithMalformedCursor_ReturnsBadRequest() throws Exception {
+        // when
+        ResultActions result = mockMvc.perform(post("/api/employees/search/example")
+            .param("cursor", "not-a-cursor")
+            .content(objectMapper.writeValueAsString(Employee.builder()
+                                                             .department("IT")
+                                                             .build()))
+            .contentType(MediaType.APPLICATION_JSON));
+
+        // then
+        result.andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void findByExample_WithNdjsonAccept_StreamsOneEmployeePerLine() throws Exception {
+        // given
+        doAnswer(invocation -> {
+            Consumer<Employee> consumer = invocation.getArgument(1);
+            employeeList.forEach(consumer);
+            return null;
+        }).when(employeeService)
+          .streamEmployeesByExample(any(Employee.class), any());
+        Employee searchExample = Employee.builder()
+                                         .department("IT")
+                                         .build();
+
+        // when
+        MvcResult asyncResult = mockMvc.perform(post("/api/employees/search/example")
+                                           .content(objectMapper.writeValueAsString(searchExample))
+                                           .contentType(MediaType.APPLICATION_JSON)
+                                           .accept(MediaType.APPLICATION_NDJSON))
+                                       .andExpect(request().asyncStarted())
+                                       .andReturn();
+        ResultActions result = mockMvc.perform(asyncDispatch(asyncResult));
+
+        // then
+        result.andExpect(status().isOk())
+              .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+              .andExpect(content().string(
+                  objectMapper.writeValueAsString(employeeList.get(0)) + "\n"
+                      + objectMapper.writeValueAsString(employeeList.get(1)) + "\n"));
+    }
+
+    @Test
+    void export_AsCsv_StreamsHeaderAndQuotedRows() throws Exception {
+        // given
+        doAnswer(invocation -> {
+            Consumer<Object[]> consumer = invocation.getArgument(2);
+            consumer.accept(new Object[]{1L, "John", "Doe", "IT", "Developer", new BigDecimal("75000.00")});
+            consumer.accept(new Object[]{2L, "Anna", "Smith, Jr.", "IT", null, null});
+            return null;
+        }).when(employeeService)
+          .exportEmployeesByExample(any(Employee.class), anyInt(), any());
+
+        // when
+        MvcResult asyncResult = mockMvc.perform(get("/api/employees/export")
+                                           .param("format", "csv")
+                                           .param("department", "IT"))
+                                       .andExpect(request().asyncStarted())
+                                       .andReturn();
+        ResultActions result = mockMvc.perform(asyncDispatch(asyncResult));
+
+        // then
+        result.andExpect(status().isOk())
+              .andExpect(content().contentTypeCompatibleWith("text/csv"))
+              .andExpect(content().string("""
+                  id,first_name,last_name,department,position,salary
+                  1,John,Doe,IT,Developer,75000.00
+                  2,Anna,"Smith, Jr.",IT,,
+                  """));
+    }
+
+    @Test
+    void findByExample_WithRange_PassesParsedBounds() throws Exception {
+        // given
+        List<EmployeeRange> ranges = List.of(new EmployeeRange("salary", new BigDecimal("80000"), null));
+        when(employeeService.findEmployeesByExample(any(Employee.class), eq(ranges), any(ScrollPosition.class), anyInt()))
+            .thenReturn(Window.from(List.of(sampleEmployee), ScrollPosition::offset));
+
+        // when
+        ResultActions result = mockMvc.perform(post("/api/employees/search/example")
+            .param("range", "salary:80000..")
+            .content(objectMapper.writeValueAsString(Employee.builder()
+                                                             .department("IT")
+                                                             .build()))
+            .contentType(MediaType.APPLICATION_JSON));
+
+        // then
+        result.andExpect(status().isOk())
+              .andExpect(jsonPath("$", hasSize(1)));
+    }
+
+    @Test
+    void findByExample_WithRangeOnTextField_ReturnsBadRequest() throws Exception {
+        // when
+        ResultActions result = mockMvc.perform(post("/api/employees/search/example")
+            .param("range", "department:A..C")
+            .content(objectMapper.writeValueAsString(new Employee()))
+            .contentType(MediaType.APPLICATION_JSON));
+
+        // then
+        result.andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void findByExample_WithFields_ReturnsProjectedRows() throws Exception {
+        // given
+        List<Map<String, Object>> rows = List.of(Map.of("id", 1L, "firstName", "John", "lastName", "Doe"));
+        when(employeeService.findEmployeesByExample(any(Employee.class), eq(List.of("firstName", "lastName")), eq(List.of()), any(ScrollPosition.class), anyInt()))
+            .thenReturn(Window.from(rows, ScrollPosition::offset));
+
+        // when
+        ResultActions result = mockMvc.perform(post("/api/employees/search/example")
+            .param("fields", "firstName,lastName")
+            .content(objectMapper.writeValueAsString(Employee.builder()
+                                                             .department("IT")
+                                                             .build()))
+            .contentType(MediaType.APPLICATION_JSON));
+
+        // then
+        result.andExpect(status().isOk())
+              .andExpect(jsonPath("$", hasSize(1)))
+              .andExpect(jsonPath("$[0].firstName").value("John"))
+              .andExpect(jsonPath("$[0]", not(hasKey("salary"))));
+    }
+
     @Test
     void findOneByExample_WithExistingEmployee_ReturnsEmployee() throws Exception {
         // given
@@ -183,6 +439,34 @@ class EmployeeControllerTest {
         result.andExpect(status().isNotFound());
     }
 
+    @Test
+    void findByExamples_WithProbeList_ReturnsMatchesKeyedByIndex() throws Exception {
+        // given
+        when(employeeService.findEmployeesByExamples(any()))
+            .thenReturn(List.of(List.of(sampleEmployee), List.of()));
+        List<Employee> probes = List.of(
+            Employee.builder()
+                    .firstName("John")
+                    .lastName("Doe")
+                    .build(),
+            Employee.builder()
+                    .firstName("Nobody")
+                    .lastName("Known")
+                    .build()
+        );
+
+        // when
+        ResultActions result = mockMvc.perform(post("/api/employees/search/example/batch")
+            .content(objectMapper.writeValueAsString(probes))
+            .contentType(MediaType.APPLICATION_JSON));
+
+        // then
+        result.andExpect(status().isOk())
+              .andExpect(jsonPath("$['0']", hasSize(1)))
+              .andExpect(jsonPath("$['0'][0].firstName").value("John"))
+              .andExpect(jsonPath("$['1']", hasSize(0)));
+    }
+
     @Test
     void countByExample_WithValidEmployee_ReturnsCount() throws Exception {
         // given
@@ -202,6 +486,36 @@ class EmployeeControllerTest {
               .andExpect(content().string("5"));
     }
 
+    @Test
+    void countByExample_WithCurrentETag_ReturnsNotModifiedUntilDepartmentChanges() throws Exception {
+        // given
+        when(employeeService.countEmployeesByExample(any(Employee.class)))
+            .thenAnswer(invocation -> {
+                AnswerVersions.report(tableVersion.known());
+                return 5L;
+            });
+        String etag = mockMvc.perform(get("/api/employees/count").param("department", "Sales"))
+                             .andExpect(status().isOk())
+                             .andExpect(content().string("5"))
+                             .andReturn()
+                             .getResponse()
+                             .getHeader(HttpHeaders.ETAG);
+
+        // when
+        eventPublisher.publishEvent(new EmployeeChangedEvent(employeeIn("HR"), employeeIn("HR")));
+        ResultActions unchanged = mockMvc.perform(get("/api/employees/count").param("department", "Sales")
+                                                                             .header(HttpHeaders.IF_NONE_MATCH, etag));
+        eventPublisher.publishEvent(new EmployeeChangedEvent(employeeIn("sales"), employeeIn("sales")));
+        ResultActions changed = mockMvc.perform(get("/api/employees/count").param("department", "Sales")
+                                                                           .header(HttpHeaders.IF_NONE_MATCH, etag));
+
+        // then
+        unchanged.andExpect(status().isNotModified());
+        changed.andExpect(status().isOk())
+               .andExpect(header().string(HttpHeaders.ETAG, not(etag)));
+        verify(employeeService, times(2)).countEmployeesByExample(any(Employee.class));
+    }
+
     @Test
     void existsByExample_WithExistingEmployee_ReturnsTrue() throws Exception {
         // given
@@ -241,4 +555,15 @@ class EmployeeControllerTest {
               .andExpect(content().string("false"));
     }
 
-}
\ No newline at end of file
+    private static Employee employeeIn(String department) {
+        return Employee.builder()
+                       .id(100L)
+                       .firstName("Temp")
+                       .lastName("Worker")
+                       .department(department)
+                       .position("Clerk")
+                       .salary(new BigDecimal("40000.00"))
+                       .build();
+    }
+
+}
@@ -0,0 +1,89 @@
+package com.spring.qbe.employee;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EmployeeCsvReaderTest {
+
+    @DisplayName("Should map header columns by property or column name")
+    @Test
+    void shouldReadRowsByHeader() {
+        // given
+        String csv = """
+            lastName,first_name,salary,department
+            Doe,Jane,75000.00,IT
+
+            "O""Brien","Smith, Anna",,Sales
+            """;
+
+        // when
+        List<Employee> employees = new ArrayList<>();
+        new EmployeeCsvReader(new StringReader(csv)).forEachRemaining(employees::add);
+
+        // then
+        assertThat(employees).hasSize(2);
+        assertThat(employees.get(0))
+            .extracting(Employee::getFirstName, Employee::getLastName, Employee::getDepartment, Employee::getSalary)
+            .containsExactly("Jane", "Doe", "IT", new BigDecimal("75000.00"));
+        assertThat(employees.get(1))
+            .extracting(Employee::getFirstName, Employee::getLastName, Employee::getSalary)
+            .containsExactly("Smith, Anna", "O\"Brien", null);
+    }
+
+    @DisplayName("Should reject rows that do not match the header")
+    @Test
+    void shouldRejectMalformedRows() {
+        // given
+        EmployeeCsvReader reader = new EmployeeCsvReader(new StringReader("""
+            first_name,last_name
+            Jane,Doe,IT
+            """));
+
+        // then
+        assertThatThrownBy(reader::next)
+            .isInstanceOf(InvalidImportException.class)
+            .hasMessageContaining("Line 2");
+    }
+
+    @DisplayName("Should read quoted fields across lines and count their lines in errors")
+    @Test
+    void shouldReadMultiLineFields() {
+        // given
+        EmployeeCsvReader reader = new EmployeeCsvReader(new StringReader("""
+            first_name,position
+            Jane,"Lead
+            Platform"
+            "",Developer
+            Mike
+            """));
+
+        // when
+        Employee jane = reader.next();
+        Employee unnamed = reader.next();
+
+        // then
+        assertThat(jane.getPosition()).isEqualTo("Lead\nPlatform");
+        assertThat(unnamed.getFirstName()).isEmpty();
+        assertThatThrownBy(reader::next)
+            .isInstanceOf(InvalidImportException.class)
+            .hasMessageContaining("Line 5");
+    }
+
+    @DisplayName("Should reject unknown columns")
+    @Test
+    void shouldRejectUnknownColumns() {
+        // then
+        assertThatThrownBy(() -> new EmployeeCsvReader(new StringReader("first_name,nickname\n")))
+            .isInstanceOf(InvalidImportException.class)
+            .hasMessageContaining("nickname");
+    }
+
+}
@@ -0,0 +1,55 @@
+package com.spring.qbe.employee;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class EmployeeExporterTest {
+
+    private final EmployeeService employeeService = mock(EmployeeService.class);
+
+    private final EmployeeExporter exporter = new EmployeeExporter(employeeService, new ExportProperties(Integer.MIN_VALUE), new ObjectMapper());
+
+    @DisplayName("Should export CSV that reads back unchanged, line breaks, quotes, empty strings and nulls included")
+    @Test
+    void shouldRoundTripCsv() throws Exception {
+        // given
+        doAnswer(invocation -> {
+            Consumer<Object[]> consumer = invocation.getArgument(2);
+            consumer.accept(new Object[]{1L, "Jane", "O\"Brien", "IT\nOps", "Lead,\r\nPlatform", new BigDecimal("75000.00")});
+            consumer.accept(new Object[]{2L, "", null, "HR\r", "", null});
+            return null;
+        }).when(employeeService)
+          .exportEmployeesByExample(any(Employee.class), anyInt(), any());
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // when
+        exporter.export(new Employee(), EmployeeExporter.Format.CSV, output);
+        List<Employee> employees = new ArrayList<>();
+        new EmployeeCsvReader(new StringReader(output.toString(StandardCharsets.UTF_8))).forEachRemaining(employees::add);
+
+        // then
+        assertThat(employees).hasSize(2);
+        assertThat(employees.get(0))
+            .extracting(Employee::getFirstName, Employee::getLastName, Employee::getDepartment, Employee::getPosition, Employee::getSalary)
+            .containsExactly("Jane", "O\"Brien", "IT\nOps", "Lead,\r\nPlatform", new BigDecimal("75000.00"));
+        assertThat(employees.get(1))
+            .extracting(Employee::getFirstName, Employee::getLastName, Employee::getDepartment, Employee::getPosition, Employee::getSalary)
+            .containsExactly("", null, "HR\r", "", null);
+    }
+
+}
@@ -0,0 +1,132 @@
+package com.spring.qbe.employee;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+@Testcontainers
+@RecordApplicationEvents
+@SpringBootTest(properties = "qbe.import.batch-size=2")
+class EmployeeImporterTest {
+
+    @Container
+    @ServiceConnection
+    static MySQLContainer<?> mysql = new MySQLContainer<>(DockerImageName.parse("mysql:latest"));
+
+    @Autowired
+    private EmployeeImporter importer;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    @DisplayName("Should insert every CSV row in multi-row batches with ids from the shared sequence")
+    @Test
+    void shouldImportCsvInBatches() {
+        // given
+        InputStream csv = input("""
+            first_name,last_name,department,position,salary
+            Ann,Batchley,Import,Clerk,41000.00
+            Ben,Batchley,Import,Clerk,42000.00
+            Cid,Batchley,Import,Clerk,43000.00
+            Dee,Batchley,Import,Clerk,
+            Eve,Batchley,Import,Clerk,45000.50
+            """);
+
+        // when
+        ImportReport report = importer.importCsv(csv);
+        Employee savedAfterwards = employeeRepository.save(Employee.builder()
+                                                                   .firstName("Fay")
+                                                                   .lastName("Batchley")
+                                                                   .department("Import")
+                                                                   .build());
+
+        // then
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+            "select id, first_name, salary from employees where last_name = 'Batchley' and position = 'Clerk' order by id");
+        assertThat(report.rows()).isEqualTo(5);
+        assertThat(rows).extracting(row -> row.get("first_name"))
+                        .containsExactly("Ann", "Ben", "Cid", "Dee", "Eve");
+        assertThat(rows).extracting(row -> row.get("salary"))
+                        .containsExactly(new BigDecimal("41000.00"), new BigDecimal("42000.00"), new BigDecimal("43000.00"), null,
+                            new BigDecimal("45000.50"));
+        assertThat(rows).extracting(row -> ((Number) row.get("id")).longValue())
+                        .doesNotHaveDuplicates()
+                        .allSatisfy(id -> assertThat(id).isLessThan(savedAfterwards.getId()));
+        assertThat(events.stream(EmployeeTableChangedEvent.class)).hasSize(1);
+    }
+
+    @DisplayName("Should fill the folded columns of imported rows")
+    @Test
+    void shouldFoldImportedStrings() {
+        // given
+        InputStream ndjson = input("""
+            {"firstName":"Zoë","lastName":"ÜNAL","department":"Recherche","position":"Analyste"}
+            """);
+
+        // when
+        importer.importNdjson(ndjson);
+
+        // then
+        Map<String, Object> row = jdbcTemplate.queryForMap(
+            "select first_name_folded, last_name_folded, department_folded, position_folded from employees where last_name = 'ÜNAL'");
+        assertThat(row).containsEntry("first_name_folded", "zoe")
+                       .containsEntry("last_name_folded", "unal")
+                       .containsEntry("department_folded", "recherche")
+                       .containsEntry("position_folded", "analyste");
+    }
+
+    @DisplayName("Should reject an invalid line and keep the batches committed before it")
+    @Test
+    void shouldKeepEarlierBatchesWhenLineIsRejected() {
+        // given
+        InputStream csv = input("""
+            first_name,last_name,department,position,salary
+            Ann,Partial,Import,Clerk,41000.00
+            Ben,Partial,Import,Clerk,42000.00
+            Cid,Partial,Import,Clerk,not-a-salary
+            Dee,Partial,Import,Clerk,44000.00
+            """);
+
+        // when
+        Throwable thrown = catchThrowable(() -> importer.importCsv(csv));
+
+        // then
+        assertThat(thrown).isInstanceOf(InvalidImportException.class)
+                          .hasMessageContaining("Line 4");
+        assertThat(jdbcTemplate.queryForList("select first_name from employees where last_name = 'Partial' order by id", String.class))
+            .containsExactly("Ann", "Ben");
+        assertThat(events.stream(EmployeeTableChangedEvent.class))
+            .extracting(EmployeeTableChangedEvent::reason)
+            .containsExactly("CSV import of 2 employees");
+    }
+
+    private static InputStream input(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
@@ -1,5 +1,6 @@
 package com.spring.qbe.employee;
 
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -7,13 +8,20 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
 import org.springframework.data.domain.Example;
 import org.springframework.data.domain.ExampleMatcher;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.transaction.annotation.Transactional;
 import org.testcontainers.containers.MySQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 import org.testcontainers.utility.DockerImageName;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hibernate.validator.internal.util.Contracts.assertTrue;
@@ -31,6 +39,9 @@ class EmployeeRepositoryTest {
     @Autowired
     private EmployeeRepository employeeRepository;
 
+    @Autowired
+    private EntityManager entityManager;
+
 
     @DisplayName("Should find all developers in IT department")
     @Test
@@ -221,4 +232,203 @@ class EmployeeRepositoryTest {
         assertEquals(expectedItEmployeeCount, itEmployees.size(), "Should find all IT department employees regardless of other fields");
     }
 
+    @DisplayName("Should page through engineers with keyset scrolling")
+    @Test
+    void shouldScrollEngineersByKeyset() {
+        // given
+        Example<Employee> engineeringProbe = Example.of(Employee.builder()
+                                                                .department("Engineering")
+                                                                .build());
+        List<Employee> scrolled = new ArrayList<>();
+        ScrollPosition position = ScrollPosition.keyset();
+        Window<Employee> page;
+
+        // when
+        do {
+            ScrollPosition current = position;
+            page = employeeRepository.findBy(engineeringProbe, query -> query.sortBy(Sort.by("id"))
+                                                                             .limit(3)
+                                                                             .scroll(current));
+            scrolled.addAll(page.getContent());
+            if (!page.isEmpty()) {
+                Long lastId = page.getContent()
+                                  .get(page.size() - 1)
+                                  .getId();
+                position = ScrollPosition.forward(Map.of("id", lastId));
+            }
+        } while (page.hasNext());
+
+        // then
+        assertThat(scrolled)
+            .hasSize(4)
+            .extracting(Employee::getId)
+            .isSorted()
+            .doesNotHaveDuplicates();
+        assertThat(scrolled)
+            .extracting(Employee::getFirstName)
+            .containsExactlyInAnyOrder("Emily", "David", "Lisa", "Michael");
+    }
+
+    @DisplayName("Should stream managers in id order as detached entities")
+    @Test
+    @Transactional(readOnly = true)
+    void shouldStreamManagersDetached() {
+        // given
+        Example<Employee> managerProbe = Example.of(Employee.builder()
+                                                            .position("Manager")
+                                                            .build());
+
+        // when
+        List<Employee> managers;
+        try (Stream<Employee> stream = employeeRepository.streamAll(managerProbe)) {
+            managers = stream.toList();
+        }
+
+        // then
+        assertThat(managers)
+            .hasSize(4)
+            .extracting(Employee::getId)
+            .isSorted();
+        assertThat(managers)
+            .noneMatch(entityManager::contains);
+    }
+
+    @DisplayName("Should select only requested fields of matches after the given id")
+    @Test
+    void shouldFindProjectedRows() {
+        // given
+        Example<Employee> itProbe = Example.of(Employee.builder()
+                                                       .department("IT")
+                                                       .build());
+        List<Map<String, Object>> firstPage = employeeRepository.findProjected(itProbe, List.of(), List.of("firstName"), Long.MIN_VALUE, 2);
+
+        // when
+        Long lastId = (Long) firstPage.get(1)
+                                      .get("id");
+        List<Map<String, Object>> secondPage = employeeRepository.findProjected(itProbe, List.of(), List.of("firstName"), lastId, 2);
+
+        // then
+        assertThat(firstPage)
+            .hasSize(2)
+            .allSatisfy(row -> assertThat(row).containsOnlyKeys("id", "firstName"));
+        assertThat(secondPage)
+            .hasSize(1)
+            .extracting(row -> row.get("firstName"))
+            .containsExactly("John");
+    }
+
+    @DisplayName("Should restrict example matches to a salary range")
+    @Test
+    void shouldFindWithinRange() {
+        // given
+        Example<Employee> engineers = Example.of(Employee.builder()
+                                                         .department("Engineering")
+                                                         .position("Engineer")
+                                                         .build());
+        List<EmployeeRange> ranges = List.of(EmployeeRange.parse("salary:77000..100000"));
+
+        // when
+        List<Employee> result = employeeRepository.findWithin(engineers, ranges, Long.MIN_VALUE, 10);
+
+        // then
+        assertThat(result)
+            .extracting(Employee::getFirstName)
+            .containsExactly("Emily", "David");
+    }
+
+    @DisplayName("Should evaluate a batch of probes and keep results aligned with the probes")
+    @Test
+    void shouldFindAllForEachProbe() {
+        // given
+        List<Example<Employee>> probes = List.of(
+            Example.of(Employee.builder()
+                               .firstName("Jane")
+                               .lastName("Doe")
+                               .build()),
+            Example.of(Employee.builder()
+                               .department("Engineering")
+                               .build()),
+            Example.of(Employee.builder()
+                               .firstName("Robert")
+                               .lastName("Smith")
+                               .build()),
+            Example.of(Employee.builder()
+                               .firstName("Nobody")
+                               .lastName("Known")
+                               .build())
+        );
+
+        // when
+        List<List<Employee>> results = employeeRepository.findAllForEach(probes);
+
+        // then
+        assertThat(results).hasSize(4);
+        assertThat(results.get(0))
+            .extracting(Employee::getDepartment)
+            .containsExactly("IT");
+        assertThat(results.get(1)).hasSize(4);
+        assertThat(results.get(2))
+            .extracting(Employee::getDepartment)
+            .containsExactly("Customer Support");
+        assertThat(results.get(3)).isEmpty();
+    }
+
+    @DisplayName("Should hand each probe of a batch the rows the database matched to it, beyond ASCII folding")
+    @Test
+    @Transactional
+    void shouldSplitBatchRowsByDatabaseMatches() {
+        // given
+        employeeRepository.save(Employee.builder()
+                                        .firstName("Lukas")
+                                        .lastName("Weiß")
+                                        .department("Straße")
+                                        .position("Planner")
+                                        .build());
+        List<Example<Employee>> probes = List.of(
+            Example.of(Employee.builder()
+                               .department("STRASSE")
+                               .build()),
+            Example.of(Employee.builder()
+                               .department("Engineering")
+                               .build())
+        );
+
+        // when
+        List<List<Employee>> results = employeeRepository.findAllForEach(probes);
+
+        // then
+        assertThat(results.get(0))
+            .extracting(Employee::getLastName)
+            .containsExactly("Weiß");
+        assertThat(results.get(1)).hasSize(4);
+    }
+
+    @DisplayName("Should match case-insensitive conditions regardless of case and accents")
+    @Test
+    @Transactional
+    void shouldMatchIgnoringCaseAndAccents() {
+        // given
+        employeeRepository.save(Employee.builder()
+                                        .firstName("Zoë")
+                                        .lastName("Müller")
+                                        .department("Research")
+                                        .position("Analyst")
+                                        .build());
+        Employee probe = Employee.builder()
+                                 .firstName("ZOE")
+                                 .lastName("mul")
+                                 .build();
+        ExampleMatcher matcher = ExampleMatcher.matching()
+                                               .withIgnoreCase()
+                                               .withMatcher("lastName", ExampleMatcher.GenericPropertyMatcher::startsWith);
+
+        // when
+        List<Employee> matches = employeeRepository.findAll(Example.of(probe, matcher));
+
+        // then
+        assertThat(matches)
+            .extracting(Employee::getLastName)
+            .containsExactly("Müller");
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,269 @@
+package com.spring.qbe.employee;
+
+import com.spring.qbe.config.PrimaryReads;
+import com.spring.qbe.config.ReplicaRoutingProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Example;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EmployeeResultCacheTest {
+
+    private EmployeeResultCache resultCache;
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private final Example<Employee> itDevelopers = Example.of(Employee.builder()
+                                                                      .department("IT")
+                                                                      .position("Developer")
+                                                                      .build());
+
+    @BeforeEach
+    void setUp() {
+        resultCache = new EmployeeResultCache(new ResultCacheProperties(true, 100, Duration.ofMinutes(1)), replicas(false));
+    }
+
+    @DisplayName("Should serve repeated probes from the cache")
+    @Test
+    void shouldServeRepeatedProbesFromCache() {
+        // when
+        long first = countItDevelopers();
+        long second = countItDevelopers();
+
+        // then
+        assertThat(first).isEqualTo(second);
+        assertThat(loads).hasValue(1);
+        assertThat(resultCache.stats()
+                              .hitCount()).isEqualTo(1);
+    }
+
+    @DisplayName("Should invalidate entries whose probe matches the written row")
+    @Test
+    void shouldInvalidateMatchingEntries() {
+        // given
+        countItDevelopers();
+        Employee developer = Employee.builder()
+                                     .id(1L)
+                                     .department("IT")
+                                     .position("Developer")
+                                     .build();
+
+        // when
+        resultCache.onEmployeeChanged(new EmployeeChangedEvent(null, developer));
+        countItDevelopers();
+
+        // then
+        assertThat(loads).hasValue(2);
+    }
+
+    @DisplayName("Should invalidate entries the row moved out of")
+    @Test
+    void shouldInvalidateEntriesMatchingPreviousState() {
+        // given
+        countItDevelopers();
+        Employee before = Employee.builder()
+                                  .id(1L)
+                                  .department("IT")
+                                  .position("Developer")
+                                  .build();
+        Employee after = Employee.builder()
+                                 .id(1L)
+                                 .department("HR")
+                                 .position("Manager")
+                                 .build();
+
+        // when
+        resultCache.onEmployeeChanged(new EmployeeChangedEvent(before, after));
+        countItDevelopers();
+
+        // then
+        assertThat(loads).hasValue(2);
+    }
+
+    @DisplayName("Should keep entries the written row cannot match")
+    @Test
+    void shouldKeepUnaffectedEntries() {
+        // given
+        countItDevelopers();
+        Employee manager = Employee.builder()
+                                   .id(2L)
+                                   .department("HR")
+                                   .position("Manager")
+                                   .build();
+
+        // when
+        resultCache.onEmployeeChanged(new EmployeeChangedEvent(null, manager));
+        countItDevelopers();
+
+        // then
+        assertThat(loads).hasValue(1);
+    }
+
+    @DisplayName("Should not cache a result loaded while a write committed")
+    @Test
+    void shouldNotCacheResultOverlappingWrite() {
+        // given
+        Employee unrelated = Employee.builder()
+                                     .id(3L)
+                                     .department("Sales")
+                                     .build();
+
+        // when
+        resultCache.get("count", itDevelopers, () -> {
+            loads.incrementAndGet();
+            resultCache.onEmployeeChanged(new EmployeeChangedEvent(null, unrelated));
+            return 2L;
+        });
+        countItDevelopers();
+
+        // then
+        assertThat(loads).hasValue(2);
+    }
+
+    @DisplayName("Should hand every caller its own unmodifiable copy of a cached result")
+    @Test
+    void shouldNotShareCachedInstances() {
+        // given
+        Supplier<List<Employee>> developers = () -> resultCache.get("findAll", itDevelopers, () -> new ArrayList<>(List.of(Employee.builder()
+                                                                                                                                  .id(1L)
+                                                                                                                                  .firstName("Jane")
+                                                                                                                                  .build())));
+        List<Employee> first = developers.get();
+
+        // when
+        first.getFirst()
+             .setFirstName("Changed");
+        List<Employee> second = developers.get();
+
+        // then
+        assertThat(second).extracting(Employee::getFirstName)
+                          .containsExactly("Jane");
+        assertThatThrownBy(() -> second.add(new Employee())).isInstanceOf(UnsupportedOperationException.class);
+        assertThat(resultCache.stats()
+                              .hitCount()).isEqualTo(1);
+    }
+
+    @DisplayName("Should let concurrent identical probes share one query")
+    @Test
+    void shouldCoalesceConcurrentIdenticalProbes() throws Exception {
+        // given
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<Long> leader = executor.submit(() -> resultCache.get("count", itDevelopers, () -> {
+                loads.incrementAndGet();
+                started.countDown();
+                awaitUninterruptibly(release);
+                return 2L;
+            }));
+            started.await();
+
+            // when
+            Future<Long> follower = executor.submit(this::countItDevelopers);
+            while (resultCache.coalescedLoads() == 0) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            // then
+            assertThat(leader.get()).isEqualTo(2L);
+            assertThat(follower.get()).isEqualTo(2L);
+            assertThat(loads).hasValue(1);
+            assertThat(resultCache.coalescedLoads()).isEqualTo(1);
+        }
+    }
+
+    @DisplayName("Should not let probes started after a write join a query started before it")
+    @Test
+    void shouldNotCoalesceAcrossWrites() throws Exception {
+        // given
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<Long> beforeWrite = executor.submit(() -> resultCache.get("count", itDevelopers, () -> {
+                loads.incrementAndGet();
+                started.countDown();
+                awaitUninterruptibly(release);
+                return 2L;
+            }));
+            started.await();
+
+            // when
+            resultCache.onEmployeeTableChanged(new EmployeeTableChangedEvent("test"));
+            long afterWrite = countItDevelopers();
+            release.countDown();
+
+            // then
+            assertThat(beforeWrite.get()).isEqualTo(2L);
+            assertThat(afterWrite).isEqualTo(2L);
+            assertThat(loads).hasValue(2);
+            assertThat(resultCache.coalescedLoads()).isZero();
+        }
+    }
+
+    @DisplayName("Should bypass cache and shared queries for reads that must see the primary")
+    @Test
+    void shouldBypassForPrimaryReads() {
+        // given
+        countItDevelopers();
+
+        // when
+        PrimaryReads.on(this::countItDevelopers);
+
+        // then
+        assertThat(loads).hasValue(2);
+        assertThat(resultCache.stats()
+                              .requestCount()).isEqualTo(1);
+    }
+
+    @DisplayName("Should not cache results that may come from a replica")
+    @Test
+    void shouldNotCacheWithReplicas() {
+        // given
+        resultCache = new EmployeeResultCache(new ResultCacheProperties(true, 100, Duration.ofMinutes(1)), replicas(true));
+
+        // when
+        countItDevelopers();
+        countItDevelopers();
+
+        // then
+        assertThat(loads).hasValue(2);
+    }
+
+    private long countItDevelopers() {
+        return resultCache.get("count", itDevelopers, () -> {
+            loads.incrementAndGet();
+            return 2L;
+        });
+    }
+
+    private static ReplicaRoutingProperties replicas(boolean enabled) {
+        return new ReplicaRoutingProperties(enabled, List.of(), ReplicaRoutingProperties.Balancing.ROUND_ROBIN, Duration.ofSeconds(5),
+            Duration.ofSeconds(1), Duration.ofSeconds(5));
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                  .interrupt();
+        }
+    }
+
+}
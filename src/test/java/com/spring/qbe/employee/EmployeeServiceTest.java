@@ -1,5 +1,8 @@
 package com.spring.qbe.employee;
 
+import com.spring.qbe.config.ReplicaRoutingProperties;
+import com.spring.qbe.config.ShardingProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -10,12 +13,22 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Example;
 import org.springframework.data.domain.ExampleMatcher;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -25,6 +38,17 @@ class EmployeeServiceTest {
     @Mock
     private EmployeeRepository employeeRepository;
 
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private EmployeeQueryPlanner queryPlanner;
+
+    @Mock
+    private CacheVersionRepository cacheVersionRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+
     private EmployeeService employeeService;
 
     @Captor
@@ -32,7 +56,41 @@ class EmployeeServiceTest {
 
     @BeforeEach
     void setUp() {
-        employeeService = new EmployeeService(employeeRepository);
+        employeeService = employeeService(ProbePolicyProperties.Action.ALLOW);
+    }
+
+    @DisplayName("Should record latency and row count tagged with the probe shape")
+    @Test
+    void shouldRecordMetricsPerProbeShape() {
+        // given
+        Employee probe = Employee.builder()
+                                 .department("IT")
+                                 .position("Developer")
+                                 .build();
+        when(employeeRepository.findAll(any(Example.class))).thenReturn(List.of(Employee.builder()
+                                                                                        .firstName("Jane")
+                                                                                        .build()));
+
+        // when
+        employeeService.findEmployeesByExample(probe);
+        employeeService.findEmployeesByExample(probe);
+
+        // then
+        String shape = "department:equals&position:equals";
+        assertThat(meterRegistry.get("qbe.employee.query")
+                                .tag("method", "findAll")
+                                .tag("shape", shape)
+                                .timer()
+                                .count()).isEqualTo(2);
+        assertThat(meterRegistry.get("qbe.employee.query.rows")
+                                .tag("shape", shape)
+                                .summary()
+                                .totalAmount()).isEqualTo(2);
+        assertThat(meterRegistry.get("qbe.employee.query.phase")
+                                .tag("shape", shape)
+                                .tag("phase", "hydration")
+                                .timer()
+                                .count()).isEqualTo(2);
     }
 
     @DisplayName("Should find employees by exact criteria")
@@ -75,6 +133,35 @@ class EmployeeServiceTest {
             .hasFieldOrPropertyWithValue("position", "Developer");
     }
 
+    @DisplayName("Should scroll employees by example ordered by id")
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldScrollEmployeesByExample() {
+        // given
+        Employee probe = Employee.builder()
+                                 .department("Engineering")
+                                 .build();
+        ScrollPosition position = ScrollPosition.forward(Map.of("id", 10L));
+        when(employeeRepository.findWithin(any(Example.class), any(List.class), any(Long.class), any(Integer.class)))
+            .thenReturn(List.of(Employee.builder()
+                                        .id(11L)
+                                        .department("Engineering")
+                                        .build()));
+
+        // when
+        Window<Employee> result = employeeService.findEmployeesByExample(probe, position, 50);
+
+        // then
+        verify(employeeRepository).findWithin(exampleCaptor.capture(), eq(List.of()), eq(10L), eq(51));
+        assertThat(result.getContent())
+            .extracting(Employee::getId)
+            .containsExactly(11L);
+        assertThat(result.hasNext()).isFalse();
+        assertThat(exampleCaptor.getValue()
+                                .getProbe())
+            .hasFieldOrPropertyWithValue("department", "Engineering");
+    }
+
     @DisplayName("Should find employees with custom matcher")
     @Test
     void shouldFindEmployeesWithCustomMatcher() {
@@ -207,4 +294,89 @@ class EmployeeServiceTest {
             .hasFieldOrPropertyWithValue("department", "Unknown");
     }
 
-}
\ No newline at end of file
+    @DisplayName("Should reject a probe whose plan is a full scan above the threshold without querying")
+    @Test
+    void shouldRejectFullScanProbes() {
+        // given
+        EmployeeService rejecting = employeeService(ProbePolicyProperties.Action.REJECT);
+        Employee probe = Employee.builder()
+                                 .lastName("Smith")
+                                 .build();
+        when(queryPlanner.plan(any(Example.class), eq(List.of()), eq(ProbeStatement.ALL)))
+            .thenReturn(new ProbePlan("lastName:equals", ProbeStatement.ALL, "select e.* from employees e where e.last_name = ?", List.of(), 250_000,
+                List.of(), true));
+
+        // when
+        Throwable thrown = catchThrowable(() -> rejecting.countEmployeesByExample(probe));
+
+        // then
+        assertThat(thrown).isInstanceOf(ProbeRejectedException.class)
+                          .hasMessageContaining("lastName:equals");
+        verify(employeeRepository, never()).count(any(Example.class));
+        assertThat(meterRegistry.get("qbe.employee.query")
+                                .tag("method", "count")
+                                .tag("outcome", "error")
+                                .tag("exception", "ProbeRejectedException")
+                                .timer()
+                                .count()).isEqualTo(1);
+    }
+
+    @DisplayName("Should run a probe whose plan uses an index under the reject policy")
+    @Test
+    void shouldRunIndexedProbesUnderRejectPolicy() {
+        // given
+        EmployeeService rejecting = employeeService(ProbePolicyProperties.Action.REJECT);
+        Employee probe = Employee.builder()
+                                 .department("IT")
+                                 .build();
+        when(queryPlanner.plan(any(Example.class), eq(List.of()), eq(ProbeStatement.ALL)))
+            .thenReturn(new ProbePlan("department:equals", ProbeStatement.ALL, "select e.* from employees e where e.department = ?", List.of(), 3,
+                List.of("idx_employees_department_position_salary"), false));
+        when(employeeRepository.count(any(Example.class))).thenReturn(3L);
+
+        // when
+        long count = rejecting.countEmployeesByExample(probe);
+
+        // then
+        assertThat(count).isEqualTo(3L);
+    }
+
+    @DisplayName("Should judge a keyset page by the plan of the page statement under the reject policy")
+    @Test
+    void shouldJudgePagesByTheirOwnPlan() {
+        // given
+        EmployeeService rejecting = employeeService(ProbePolicyProperties.Action.REJECT);
+        Employee jane = Employee.builder()
+                                .id(1L)
+                                .firstName("Jane")
+                                .build();
+        ProbeStatement firstPage = ProbeStatement.page(11);
+        when(queryPlanner.plan(any(Example.class), eq(List.of()), eq(firstPage)))
+            .thenReturn(new ProbePlan("unconstrained", firstPage, "select e.* from employees e where e.id > ? order by e.id limit ?", List.of(), 11,
+                List.of("PRIMARY"), true));
+        when(employeeRepository.findWithin(any(Example.class), eq(List.of()), eq(Long.MIN_VALUE), eq(11))).thenReturn(List.of(jane));
+
+        // when
+        Window<Employee> page = rejecting.findEmployeesByExample(new Employee(), ScrollPosition.keyset(), 10);
+
+        // then
+        assertThat(page.getContent()).containsExactly(jane);
+        verify(queryPlanner, never()).plan(any(Example.class), any(), eq(ProbeStatement.ALL));
+    }
+
+    private EmployeeService employeeService(ProbePolicyProperties.Action action) {
+        ResultCacheProperties cacheDisabled = new ResultCacheProperties(false, 1, Duration.ofMinutes(1));
+        EmployeeShards singleShard = new EmployeeShards(new ShardingProperties(false, List.of(), 1), transactionManager, mock(JdbcTemplate.class));
+        ReplicaRoutingProperties replicasDisabled = new ReplicaRoutingProperties(false, List.of(), ReplicaRoutingProperties.Balancing.ROUND_ROBIN,
+            Duration.ofSeconds(5), Duration.ofSeconds(1), Duration.ofSeconds(5));
+        EmployeeTableVersion tableVersion = new EmployeeTableVersion(cacheVersionRepository, event -> {
+        }, replicasDisabled, transactionManager);
+        EmployeeBitmapIndex bitmapIndexDisabled = new EmployeeBitmapIndex(new BitmapIndexProperties(false, Duration.ZERO), employeeRepository, singleShard,
+            tableVersion, transactionManager);
+        ProbePolicy probePolicy = new ProbePolicy(new ProbePolicyProperties(action, 100_000, 2, Duration.ofSeconds(1), Duration.ofMinutes(10)), queryPlanner);
+        meterRegistry = new SimpleMeterRegistry();
+        return new EmployeeService(employeeRepository, new EmployeeResultCache(cacheDisabled, replicasDisabled), bitmapIndexDisabled,
+                                   new EmployeeQueryMetrics(meterRegistry), singleShard, probePolicy, tableVersion);
+    }
+
+}
@@ -0,0 +1,152 @@
+package com.spring.qbe.employee;
+
+import com.spring.qbe.config.ReplicaRoutingProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class EmployeeTableVersionTest {
+
+    @Mock
+    private CacheVersionRepository cacheVersionRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private EmployeeTableVersion tableVersion;
+
+    @BeforeEach
+    void setUp() {
+        tableVersion = new EmployeeTableVersion(cacheVersionRepository, eventPublisher, new ReplicaRoutingProperties(false, List.of(),
+            ReplicaRoutingProperties.Balancing.ROUND_ROBIN, Duration.ofSeconds(5), Duration.ofSeconds(1), Duration.ofSeconds(5)), transactionManager);
+    }
+
+    @DisplayName("Should bump every counter a transaction touched once, after it committed")
+    @Test
+    void shouldBumpOncePerTransaction() {
+        // given
+        List<CacheVersion> bumped = List.of(counter(Employee.CACHE_REGION, 1));
+        when(cacheVersionRepository.findByRegionIn(any())).thenReturn(bumped);
+        TransactionSynchronizationManager.initSynchronization();
+
+        // when
+        try {
+            for (long id = 1; id <= 3; id++) {
+                tableVersion.onEmployeeChanged(new EmployeeChangedEvent(null, Employee.builder()
+                                                                                      .id(id)
+                                                                                      .department("IT")
+                                                                                      .build()));
+            }
+            tableVersion.onEmployeeTableChanged(new EmployeeTableChangedEvent("import"));
+            verify(cacheVersionRepository, never()).bumpOrCreate(anyString());
+            TransactionSynchronizationUtils.triggerAfterCommit();
+            TransactionSynchronizationUtils.triggerAfterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // then
+        InOrder order = inOrder(cacheVersionRepository);
+        order.verify(cacheVersionRepository)
+             .bumpOrCreate(Employee.CACHE_REGION);
+        order.verify(cacheVersionRepository)
+             .bumpOrCreate(EmployeeTableVersion.BULK_REGION);
+        order.verify(cacheVersionRepository)
+             .bumpOrCreate(anyString());
+        verify(cacheVersionRepository, times(3)).bumpOrCreate(anyString());
+        verify(eventPublisher).publishEvent(new EmployeeVersionBumpedEvent(Map.of(Employee.CACHE_REGION, 1L)));
+    }
+
+    @DisplayName("Should not bump for a rolled back transaction")
+    @Test
+    void shouldNotBumpOnRollback() {
+        // given
+        TransactionSynchronizationManager.initSynchronization();
+
+        // when
+        try {
+            tableVersion.onEmployeeTableChanged(new EmployeeTableChangedEvent("import"));
+            TransactionSynchronizationUtils.triggerAfterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // then
+        verify(cacheVersionRepository, never()).bumpOrCreate(anyString());
+    }
+
+    @DisplayName("Should bump right away without a transaction")
+    @Test
+    void shouldBumpWithoutTransaction() {
+        // given
+        List<CacheVersion> bumped = List.of(counter(Employee.CACHE_REGION, 1));
+        when(cacheVersionRepository.findByRegionIn(any())).thenReturn(bumped);
+        Employee employee = Employee.builder()
+                                    .id(1L)
+                                    .build();
+
+        // when
+        tableVersion.onEmployeeChanged(new EmployeeChangedEvent(employee, employee));
+
+        // then
+        verify(cacheVersionRepository).bumpOrCreate(Employee.CACHE_REGION);
+        verify(cacheVersionRepository, times(1)).bumpOrCreate(anyString());
+        verify(eventPublisher).publishEvent(new EmployeeVersionBumpedEvent(Map.of(Employee.CACHE_REGION, 1L)));
+    }
+
+    @DisplayName("Should derive ETags from the counters known in memory, never moving them back")
+    @Test
+    void shouldTagFromKnownCounters() {
+        // given
+        String department = "Sales";
+        String unknown = tableVersion.etag(department, "count");
+
+        // when
+        tableVersion.advance(Map.of(EmployeeTableVersion.BULK_REGION, 2L, Employee.CACHE_REGION, 7L));
+        String advanced = tableVersion.etag(department, "count");
+        tableVersion.advance(Map.of(EmployeeTableVersion.BULK_REGION, 1L));
+
+        // then
+        assertThat(unknown).startsWith("\"0.0-");
+        assertThat(advanced).startsWith("\"2.0-");
+        assertThat(tableVersion.etag(department, "count")).isEqualTo(advanced);
+        assertThat(tableVersion.etag(null, "count")).startsWith("\"7-");
+        assertThat(tableVersion.etag("Straße", "count")).startsWith("\"7-");
+        verify(cacheVersionRepository, never()).findAll();
+    }
+
+    private static CacheVersion counter(String region, long value) {
+        CacheVersion version = mock(CacheVersion.class);
+        when(version.getId()).thenReturn(region);
+        when(version.getCounter()).thenReturn(value);
+        return version;
+    }
+
+}
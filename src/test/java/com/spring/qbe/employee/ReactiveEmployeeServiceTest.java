@@ -0,0 +1,103 @@
+package com.spring.qbe.employee;
+
+import com.spring.qbe.config.PrimaryReads;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReactiveEmployeeServiceTest {
+
+    private final EmployeeService employeeService = mock(EmployeeService.class);
+
+    private final Employee probe = Employee.builder()
+                                           .department("IT")
+                                           .build();
+
+    private ReactiveEmployeeService reactiveEmployeeService;
+
+    @BeforeEach
+    void setUp() {
+        reactiveEmployeeService = new ReactiveEmployeeService(employeeService, new ReactiveSearchProperties(2, 2));
+        List<Employee> firstPage = List.of(employee(1L), employee(2L));
+        when(employeeService.findEmployeesByExample(eq(probe), eq(ScrollPosition.keyset()), eq(2)))
+            .thenReturn(Window.from(firstPage, index -> ScrollPosition.forward(Map.of("id", firstPage.get(index)
+                                                                                                      .getId())), true));
+        when(employeeService.findEmployeesByExample(eq(probe), eq(ScrollPosition.forward(Map.of("id", 2L))), eq(2)))
+            .thenReturn(Window.from(List.of(employee(3L)), ScrollPosition::offset, false));
+    }
+
+    @AfterEach
+    void tearDown() {
+        reactiveEmployeeService.close();
+    }
+
+    @DisplayName("Should emit every page of matches in keyset order")
+    @Test
+    void shouldEmitAllPages() {
+        // when
+        List<Employee> employees = reactiveEmployeeService.findEmployeesByExample(probe, List.of())
+                                                          .collectList()
+                                                          .block();
+
+        // then
+        assertThat(employees).extracting(Employee::getId)
+                             .containsExactly(1L, 2L, 3L);
+    }
+
+    @DisplayName("Should not read the next page until the subscriber asks past the current one")
+    @Test
+    void shouldReadPagesOnDemand() {
+        // when
+        List<Employee> employees = reactiveEmployeeService.findEmployeesByExample(probe, List.of())
+                                                          .take(2, true)
+                                                          .collectList()
+                                                          .block();
+
+        // then
+        assertThat(employees).hasSize(2);
+        verify(employeeService, times(1)).findEmployeesByExample(any(Employee.class), any(ScrollPosition.class), eq(2));
+    }
+
+    @DisplayName("Should read pages with the routing of the caller that assembled the flux")
+    @Test
+    void shouldReadWithCallerRouting() {
+        // given
+        List<Boolean> pinned = new CopyOnWriteArrayList<>();
+        when(employeeService.findEmployeesWithCustomMatcher(isNull(), eq("IT"), eq(ScrollPosition.keyset()), eq(2)))
+            .thenAnswer(invocation -> {
+                pinned.add(PrimaryReads.isPinned());
+                return Window.from(List.of(employee(1L)), ScrollPosition::offset, false);
+            });
+
+        // when
+        PrimaryReads.on(() -> reactiveEmployeeService.findEmployeesWithCustomMatcher(null, "IT"))
+                    .blockLast();
+
+        // then
+        assertThat(pinned).containsExactly(true);
+    }
+
+    private static Employee employee(Long id) {
+        return Employee.builder()
+                       .id(id)
+                       .department("IT")
+                       .build();
+    }
+
+}
@@ -0,0 +1,146 @@
+package com.spring.qbe.employee;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Testcontainers
+@SpringBootTest(properties = {"qbe.shards.enabled=true", "qbe.result-cache.enabled=false"})
+class ShardedEmployeeServiceTest {
+
+    @Container
+    @ServiceConnection
+    static MySQLContainer<?> mysql = new MySQLContainer<>(DockerImageName.parse("mysql:latest"));
+
+    @Container
+    static MySQLContainer<?> secondShard = new MySQLContainer<>(DockerImageName.parse("mysql:latest"));
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private EmployeeShards shards;
+
+    @DynamicPropertySource
+    static void secondShardProperties(DynamicPropertyRegistry registry) {
+        registry.add("qbe.shards.instances[0].url", secondShard::getJdbcUrl);
+        registry.add("qbe.shards.instances[0].username", secondShard::getUsername);
+        registry.add("qbe.shards.instances[0].password", secondShard::getPassword);
+    }
+
+    @DisplayName("Should keep every seeded employee on the shard of its department")
+    @Test
+    void shouldPlaceEmployeesByDepartment() {
+        // given
+        List<MySQLContainer<?>> databases = List.of(mysql, secondShard);
+
+        // when
+        List<List<String>> departments = databases.stream()
+                                                  .map(database -> jdbc(database).queryForList("select distinct department from employees", String.class))
+                                                  .toList();
+
+        // then
+        assertThat(departments.get(0)).isNotEmpty()
+                                      .allSatisfy(department -> assertThat(shards.shardOf(department)).isZero());
+        assertThat(departments.get(1)).isNotEmpty()
+                                      .allSatisfy(department -> assertThat(shards.shardOf(department)).isOne());
+    }
+
+    @DisplayName("Should place departments the collation considers equal on one shard")
+    @Test
+    void shouldPlaceCollationEqualDepartmentsTogether() {
+        // given
+        List<List<String>> equalNames = List.of(List.of("Straße", "STRASSE", "strasse"), List.of("Æther", "aether"), List.of("Café", "cafe"));
+
+        // then
+        assertThat(equalNames).allSatisfy(names -> assertThat(names).extracting(shards::shardOf)
+                                                                  .containsOnly(shards.shardOf(names.getFirst())));
+    }
+
+    @DisplayName("Should merge counts and matches of all shards when the probe has no department")
+    @Test
+    void shouldScatterProbesWithoutDepartment() {
+        // given
+        Employee everyone = new Employee();
+
+        // when
+        long total = employeeService.countEmployeesByExample(everyone);
+        List<Employee> matches = employeeService.findEmployeesWithCustomMatcher(null, "in");
+
+        // then
+        assertThat(total).isEqualTo(rows(mysql) + rows(secondShard))
+                         .isEqualTo(18);
+        assertThat(matches).extracting(Employee::getDepartment)
+                           .containsOnly("Engineering", "Finance", "Marketing")
+                           .hasSize(8);
+        assertThat(matches).extracting(Employee::getId)
+                           .isSorted();
+    }
+
+    @DisplayName("Should answer department probes from the shard holding the department")
+    @Test
+    void shouldRouteProbesWithDepartment() {
+        // given
+        Employee engineering = Employee.builder()
+                                       .department("Engineering")
+                                       .build();
+
+        // when
+        long count = employeeService.countEmployeesByExample(engineering);
+        boolean exists = employeeService.existsByExample(engineering);
+
+        // then
+        assertThat(count).isEqualTo(4);
+        assertThat(exists).isTrue();
+        assertThat(employeeService.existsByExample(Employee.builder()
+                                                           .firstName("Nobody")
+                                                           .build())).isFalse();
+    }
+
+    @DisplayName("Should page through all shards in global id order")
+    @Test
+    void shouldScrollAcrossShards() {
+        // given
+        List<Long> ids = new ArrayList<>();
+        ScrollPosition position = ScrollPosition.keyset();
+
+        // when
+        Window<Employee> page;
+        do {
+            page = employeeService.findEmployeesByExample(new Employee(), position, 5);
+            page.forEach(employee -> ids.add(employee.getId()));
+            position = page.hasNext() ? page.positionAt(page.size() - 1) : position;
+        } while (page.hasNext());
+
+        // then
+        assertThat(ids).hasSize(18)
+                       .doesNotHaveDuplicates()
+                       .isSorted();
+    }
+
+    private static long rows(MySQLContainer<?> database) {
+        return jdbc(database).queryForObject("select count(*) from employees", Long.class);
+    }
+
+    private static JdbcTemplate jdbc(MySQLContainer<?> database) {
+        return new JdbcTemplate(new DriverManagerDataSource(database.getJdbcUrl(), database.getUsername(), database.getPassword()));
+    }
+
+}
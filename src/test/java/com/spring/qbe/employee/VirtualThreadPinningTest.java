@@ -0,0 +1,99 @@
+package com.spring.qbe.employee;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Detects virtual threads pinned to their carrier inside the Hibernate/JDBC path. A pinned virtual thread
+ * holds a carrier while it blocks on I/O, which silently turns the virtual-thread mode back into a small
+ * platform thread pool. A failure lists the offending stack frames.
+ */
+@Testcontainers
+@SpringBootTest(properties = "spring.threads.virtual.enabled=true")
+class VirtualThreadPinningTest {
+
+    @Container
+    @ServiceConnection
+    static MySQLContainer<?> mysql = new MySQLContainer<>(DockerImageName.parse("mysql:latest"));
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @DisplayName("Should not pin virtual threads while querying through the service")
+    @Test
+    void shouldNotPinVirtualThreads() throws Exception {
+        // given
+        List<String> pinnedStacks = new CopyOnWriteArrayList<>();
+        List<Long> counts = new ArrayList<>();
+
+        try (RecordingStream recording = new RecordingStream()) {
+            recording.enable("jdk.VirtualThreadPinned")
+                     .withThreshold(Duration.ZERO)
+                     .withStackTrace();
+            recording.onEvent("jdk.VirtualThreadPinned", event -> pinnedStacks.add(describe(event)));
+            recording.startAsync();
+
+            // when
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                List<Callable<Long>> probes = IntStream.range(0, 200)
+                                                       .<Callable<Long>>mapToObj(i -> () -> employeeService.countEmployeesByExample(
+                                                           Employee.builder()
+                                                                   .department(i % 2 == 0 ? "IT" : "Engineering")
+                                                                   .lastName("Probe" + i)
+                                                                   .build()))
+                                                       .toList();
+                for (Future<Long> count : executor.invokeAll(probes)) {
+                    counts.add(count.get());
+                }
+            }
+            recording.stop();
+        }
+
+        // then
+        assertThat(counts).hasSize(200)
+                          .containsOnly(0L);
+        assertThat(pinnedStacks)
+            .filteredOn(stack -> stack.contains("org.hibernate") || stack.contains("com.mysql") || stack.contains("com.zaxxer"))
+            .isEmpty();
+    }
+
+    private static String describe(RecordedEvent event) {
+        StringBuilder stack = new StringBuilder("pinned for " + event.getDuration() + ":");
+        if (event.getStackTrace() != null) {
+            for (RecordedFrame frame : event.getStackTrace()
+                                            .getFrames()) {
+                stack.append("\n\tat ")
+                     .append(frame.getMethod()
+                                  .getType()
+                                  .getName())
+                     .append('.')
+                     .append(frame.getMethod()
+                                  .getName());
+            }
+        }
+        return stack.toString();
+    }
+
+}